@@ -0,0 +1,76 @@
+package io.github.centrifugal.centrifuge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.benchmarks.BenchmarkClients;
+import io.github.centrifugal.centrifuge.benchmarks.Frames;
+import io.github.centrifugal.centrifuge.fakeserver.FakeCentrifugo;
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+import io.github.centrifugal.centrifuge.subscriptions.Subscription;
+import io.github.centrifugal.centrifuge.subscriptions.SubscriptionEventListener;
+
+// Lives in client package to reach package-private processBytes and processAsyncReply.
+// Frames are processed on benchmark thread while client's own threads stay idle.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientBenchmark {
+
+    private static final String CHANNEL = "channel";
+
+    @Param({"PUBLICATION", "JOIN", "LEAVE", "UNSUB", "MESSAGE", "SUB"})
+    public Protocol.PushType pushType;
+
+    @Param({"128", "16384"})
+    public int payloadSize;
+
+    private FakeCentrifugo server;
+    private Client client;
+    private Protocol.Reply reply;
+    private okio.ByteString frame;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        server = new FakeCentrifugo();
+        client = BenchmarkClients.connect(server.getUrl(), BenchmarkClients.options(), CHANNEL, new SubscriptionEventListener() {
+            @Override
+            public void onUnsubscribe(Subscription subscription, UnsubscribeEvent event) {
+            }
+        });
+        reply = Frames.pushReply(pushType, CHANNEL, payloadSize);
+        frame = Frames.frame(reply);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.disconnect();
+        server.close();
+    }
+
+    @Benchmark
+    public void processBytes() {
+        client.processBytes(frame);
+    }
+
+    @Benchmark
+    public void processAsyncReply() {
+        client.processAsyncReply(reply);
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.centrifugal.centrifuge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+import io.github.centrifugal.centrifuge.publish.PublishRequest;
+import okio.ByteString;
+
+// Lives in client package to reach package-private serializeCommand.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandEncodingBenchmark {
+
+    @Param({"128", "16384", "1048576"})
+    public int payloadSize;
+
+    private Client client;
+    private Protocol.Command command;
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        client = new Client(new ClientOptions(), new ClientEventListener() {
+        }, "ws://localhost/connection/websocket?format=protobuf");
+        data = new byte[payloadSize];
+        command = Protocol.Command.newBuilder()
+                .setId(1)
+                .setMethod(Protocol.MethodType.PUBLISH)
+                .setParams(new PublishRequest("channel", data).toByteString())
+                .build();
+    }
+
+    // Whole outbound path of publish: request encoding, command and frame.
+    @Benchmark
+    public ByteString encodePublish() {
+        return client.serializeCommand(Protocol.Command.newBuilder()
+                .setId(1)
+                .setMethod(Protocol.MethodType.PUBLISH)
+                .setParams(new PublishRequest("channel", data).toByteString())
+                .build());
+    }
+
+    @Benchmark
+    public ByteString serializeCommand() {
+        return client.serializeCommand(command);
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.centrifugal.centrifuge.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.Client;
+import io.github.centrifugal.centrifuge.ClientEventListener;
+import io.github.centrifugal.centrifuge.ClientOptions;
+import io.github.centrifugal.centrifuge.subscriptions.Subscription;
+import io.github.centrifugal.centrifuge.subscriptions.SubscriptionEventListener;
+
+public final class BenchmarkClients {
+
+    private static final long AWAIT_SECONDS = 10;
+
+    private BenchmarkClients() {
+    }
+
+    public static ClientOptions options() {
+        ClientOptions clientOptions = new ClientOptions();
+        clientOptions.setPingInterval((int) TimeUnit.HOURS.toMillis(1));
+        return clientOptions;
+    }
+
+    // Connects client and subscribes it to channel, blocks until both are confirmed by server.
+    public static Client connect(String url, ClientOptions clientOptions, String channel, SubscriptionEventListener listener) throws InterruptedException {
+        CountDownLatch connected = new CountDownLatch(1);
+        Client client = new Client(clientOptions, new ClientEventListener() {
+            @Override
+            public void onConnect(Client client, ConnectData data) {
+                connected.countDown();
+            }
+        }, url);
+        client.connect("");
+        await(connected, "connect");
+
+        CountDownLatch subscribed = new CountDownLatch(1);
+        client.subscribe(channel, new SubscriptionEventListener() {
+            @Override
+            public void onSubscribeSuccess(Subscription subscription, SubscribeSuccessEvent event) {
+                listener.onSubscribeSuccess(subscription, event);
+                subscribed.countDown();
+            }
+
+            @Override
+            public void onPublication(Subscription subscription, PublicationEvent event) {
+                listener.onPublication(subscription, event);
+            }
+
+            @Override
+            public void onJoin(Subscription subscription, JoinEvent event) {
+                listener.onJoin(subscription, event);
+            }
+
+            @Override
+            public void onLeave(Subscription subscription, LeaveEvent event) {
+                listener.onLeave(subscription, event);
+            }
+
+            @Override
+            public void onUnsubscribe(Subscription subscription, UnsubscribeEvent event) {
+                listener.onUnsubscribe(subscription, event);
+            }
+        });
+        await(subscribed, "subscribe");
+        return client;
+    }
+
+    private static void await(CountDownLatch latch, String what) throws InterruptedException {
+        if (!latch.await(AWAIT_SECONDS, TimeUnit.SECONDS))
+            throw new IllegalStateException(what + " timed out");
+    }
+}
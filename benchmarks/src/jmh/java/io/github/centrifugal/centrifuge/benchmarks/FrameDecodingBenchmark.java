@@ -0,0 +1,71 @@
+package io.github.centrifugal.centrifuge.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.codec.ReplyDecoder;
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+// Compares the original stream based decoding of publication frames with ReplyDecoder.
+// Run with the gc profiler (enabled in build.gradle) and compare gc.alloc.rate.norm.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameDecodingBenchmark {
+
+    @Param({"128", "16384"})
+    public int payloadSize;
+
+    @Param({"1", "16"})
+    public int pushesPerFrame;
+
+    private okio.ByteString frame;
+
+    @Setup
+    public void setup() {
+        Protocol.Reply[] replies = new Protocol.Reply[pushesPerFrame];
+        for (int i = 0; i < pushesPerFrame; i++)
+            replies[i] = Frames.publicationReply("channel", i + 1, new byte[payloadSize]);
+        frame = Frames.frame(replies);
+    }
+
+    @Benchmark
+    public void streamDecoding(Blackhole blackhole) throws IOException {
+        InputStream inputStream = new ByteArrayInputStream(frame.toByteArray());
+        while (inputStream.available() > 0) {
+            Protocol.Reply reply = Protocol.Reply.parseDelimitedFrom(inputStream);
+            Protocol.Push push = Protocol.Push.parseFrom(reply.getResult());
+            blackhole.consume(Protocol.Publication.parseFrom(push.getData()));
+        }
+    }
+
+    @Benchmark
+    public void aliasingDecoding(Blackhole blackhole) throws IOException {
+        ReplyDecoder.decode(frame, reply -> {
+            try {
+                Protocol.Push push = ReplyDecoder.parse(Protocol.Push.parser(), reply.getResult());
+                blackhole.consume(ReplyDecoder.parse(Protocol.Publication.parser(), push.getData()));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
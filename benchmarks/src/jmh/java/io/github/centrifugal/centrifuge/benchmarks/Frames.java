@@ -0,0 +1,85 @@
+package io.github.centrifugal.centrifuge.benchmarks;
+
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+import okio.Buffer;
+
+public final class Frames {
+
+    private Frames() {
+    }
+
+    public static Protocol.Publication publication(int seq, byte[] data) {
+        return Protocol.Publication.newBuilder()
+                .setSeq(seq)
+                .setUid("uid-" + seq)
+                .setData(ByteString.copyFrom(data))
+                .setInfo(clientInfo(seq))
+                .build();
+    }
+
+    public static Protocol.ClientInfo clientInfo(int n) {
+        return Protocol.ClientInfo.newBuilder()
+                .setUser("user-" + n)
+                .setClient("client-" + n)
+                .build();
+    }
+
+    public static Protocol.Reply publicationReply(String channel, int seq, byte[] data) {
+        return pushReply(Protocol.PushType.PUBLICATION, channel, publication(seq, data).toByteString());
+    }
+
+    public static Protocol.Reply pushReply(Protocol.PushType pushType, String channel, int payloadSize) {
+        switch (pushType) {
+            case PUBLICATION:
+                return publicationReply(channel, 1, new byte[payloadSize]);
+            case JOIN:
+                return pushReply(pushType, channel, Protocol.Join.newBuilder().setInfo(clientInfo(1)).build().toByteString());
+            case LEAVE:
+                return pushReply(pushType, channel, Protocol.Leave.newBuilder().setInfo(clientInfo(1)).build().toByteString());
+            case UNSUB:
+                return pushReply(pushType, channel, Protocol.Unsub.newBuilder().setResubscribe(true).build().toByteString());
+            case MESSAGE:
+                return pushReply(pushType, "", Protocol.Message.newBuilder().setData(ByteString.copyFrom(new byte[payloadSize])).build().toByteString());
+            case SUB:
+                return pushReply(pushType, channel, Protocol.Sub.newBuilder().setRecoverable(true).build().toByteString());
+            default:
+                throw new IllegalArgumentException("unsupported push type " + pushType);
+        }
+    }
+
+    public static Protocol.Reply pushReply(Protocol.PushType pushType, String channel, ByteString data) {
+        Protocol.Push push = Protocol.Push.newBuilder()
+                .setType(pushType)
+                .setChannel(channel)
+                .setData(data)
+                .build();
+        return Protocol.Reply.newBuilder()
+                .setResult(push.toByteString())
+                .build();
+    }
+
+    public static Protocol.Reply historyReply(int id, int publications, int payloadSize) {
+        Protocol.HistoryResult.Builder builder = Protocol.HistoryResult.newBuilder();
+        for (int i = 0; i < publications; i++)
+            builder.addPublications(publication(i + 1, new byte[payloadSize]));
+        return Protocol.Reply.newBuilder()
+                .setId(id)
+                .setResult(builder.build().toByteString())
+                .build();
+    }
+
+    public static okio.ByteString frame(Protocol.Reply... replies) {
+        Buffer buffer = new Buffer();
+        try {
+            for (Protocol.Reply reply : replies)
+                reply.writeDelimitedTo(buffer.outputStream());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return buffer.readByteString();
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.centrifugal.centrifuge.benchmarks;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.history.HistoryCallback;
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryResultBenchmark {
+
+    @Param({"100", "10000"})
+    public int publications;
+
+    @Param({"128"})
+    public int payloadSize;
+
+    private Protocol.Reply reply;
+
+    @Setup
+    public void setup() {
+        reply = Frames.historyReply(1, publications, payloadSize);
+    }
+
+    @Benchmark
+    public HistoryCallback.HistoryResult fromReply() throws InvalidProtocolBufferException {
+        return HistoryCallback.HistoryResult.fromReply(reply);
+    }
+}
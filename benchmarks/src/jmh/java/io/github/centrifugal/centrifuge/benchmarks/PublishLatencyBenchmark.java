@@ -0,0 +1,83 @@
+package io.github.centrifugal.centrifuge.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.Client;
+import io.github.centrifugal.centrifuge.common.Error;
+import io.github.centrifugal.centrifuge.fakeserver.FakeCentrifugo;
+import io.github.centrifugal.centrifuge.publish.PublishCallback;
+import io.github.centrifugal.centrifuge.publish.PublishRequest;
+import io.github.centrifugal.centrifuge.subscriptions.SubscriptionEventListener;
+
+// Round trip of publish command through public API against FakeCentrifugo over loopback.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublishLatencyBenchmark {
+
+    @Param({"128", "16384"})
+    public int payloadSize;
+
+    private FakeCentrifugo server;
+    private Client client;
+    private PublishRequest publishRequest;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        server = new FakeCentrifugo();
+        client = BenchmarkClients.connect(server.getUrl(), BenchmarkClients.options(), "channel", new SubscriptionEventListener() {
+        });
+        publishRequest = new PublishRequest("channel", new byte[payloadSize]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.disconnect();
+        server.close();
+    }
+
+    @Benchmark
+    public void publish() throws InterruptedException {
+        CountDownLatch replied = new CountDownLatch(1);
+        Throwable[] failure = new Throwable[1];
+        client.publish(publishRequest, new PublishCallback() {
+            @Override
+            public void onReplySuccess(PublishResult publishResult) {
+                replied.countDown();
+            }
+
+            @Override
+            public void onReplyError(Error error) {
+                failure[0] = new IllegalStateException(error.getMessage());
+                replied.countDown();
+            }
+
+            @Override
+            public void onSendFail(Throwable throwable) {
+                failure[0] = throwable;
+                replied.countDown();
+            }
+        });
+        replied.await();
+        if (failure[0] != null)
+            throw new IllegalStateException(failure[0]);
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.centrifugal.centrifuge.benchmarks;
+
+import com.google.protobuf.ByteString;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.publish.PublishRequest;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublishRequestBenchmark {
+
+    @Param({"128", "16384", "1048576"})
+    public int payloadSize;
+
+    private PublishRequest publishRequest;
+
+    @Setup
+    public void setup() {
+        publishRequest = new PublishRequest("channel", new byte[payloadSize]);
+    }
+
+    @Benchmark
+    public ByteString toByteString() {
+        return publishRequest.toByteString();
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.centrifugal.centrifuge.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.Client;
+import io.github.centrifugal.centrifuge.fakeserver.FakeCentrifugo;
+import io.github.centrifugal.centrifuge.subscriptions.Subscription;
+import io.github.centrifugal.centrifuge.subscriptions.SubscriptionEventListener;
+
+// Time from server side publish to onPublication callback of a subscribed client.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushDeliveryBenchmark {
+
+    private static final String CHANNEL = "channel";
+
+    @Param({"128", "16384"})
+    public int payloadSize;
+
+    private FakeCentrifugo server;
+    private Client client;
+    private byte[] data;
+    private volatile CountDownLatch delivered;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        server = new FakeCentrifugo();
+        server.setHistorySize(0);
+        client = BenchmarkClients.connect(server.getUrl(), BenchmarkClients.options(), CHANNEL, new SubscriptionEventListener() {
+            @Override
+            public void onPublication(Subscription subscription, PublicationEvent event) {
+                delivered.countDown();
+            }
+        });
+        data = new byte[payloadSize];
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.disconnect();
+        server.close();
+    }
+
+    @Benchmark
+    public void publish() throws InterruptedException {
+        delivered = new CountDownLatch(1);
+        server.publish(CHANNEL, data);
+        delivered.await();
+    }
+}
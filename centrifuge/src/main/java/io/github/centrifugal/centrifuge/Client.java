@@ -3,24 +3,36 @@ package io.github.centrifugal.centrifuge;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import io.github.centrifugal.centrifuge.backoff.Backoff;
+import io.github.centrifugal.centrifuge.codec.CommandEncoder;
+import io.github.centrifugal.centrifuge.codec.ReplyDecoder;
 import io.github.centrifugal.centrifuge.common.Error;
+import io.github.centrifugal.centrifuge.common.ReplyErrorException;
 import io.github.centrifugal.centrifuge.history.HistoryCallback;
 import io.github.centrifugal.centrifuge.history.HistoryRequest;
+import io.github.centrifugal.centrifuge.logging.ConsoleClientLogger;
+import io.github.centrifugal.centrifuge.metrics.ClientMetrics;
 import io.github.centrifugal.centrifuge.presence.PresenceCallback;
 import io.github.centrifugal.centrifuge.presence.PresenceRequest;
 import io.github.centrifugal.centrifuge.presence.stats.PresenceStatsCallback;
@@ -34,6 +46,7 @@ import io.github.centrifugal.centrifuge.send.SendCallback;
 import io.github.centrifugal.centrifuge.send.SendRequest;
 import io.github.centrifugal.centrifuge.subscriptions.Subscription;
 import io.github.centrifugal.centrifuge.subscriptions.SubscriptionEventListener;
+import io.github.centrifugal.centrifuge.subscriptions.SubscriptionState;
 import java8.util.concurrent.CompletableFuture;
 import okhttp3.Headers;
 import okhttp3.OkHttpClient;
@@ -41,6 +54,7 @@ import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.WebSocket;
 import okhttp3.WebSocketListener;
+import okio.Buffer;
 import okio.ByteString;
 
 public class Client {
@@ -49,11 +63,15 @@ public class Client {
     // normal closure
     private static final int RFC_STATUS_1000 = 1000;
 
+    private static final int PENDING_COMMANDS_CAPACITY = 256;
+
     private WebSocket webSocket;
+    private final OkHttpClient networkClient;
     private ClientOptions clientOptions;
     private ClientEventListener clientEventListener;
     private ClientConnectionState clientConnectionState;
     private ClientLogger clientLogger;
+    private ClientMetrics metrics;
     private Backoff backoff;
     private String url;
     private String token;
@@ -61,27 +79,84 @@ public class Client {
     private String disconnectReasonJson;
     private int incrementalCommandId;
     private boolean needScheduleReconnect;
+    private boolean closing;
 
-    private final ExecutorService mainExecutorService = Executors.newSingleThreadExecutor();
-    private final ExecutorService reconnectExecutorService = Executors.newSingleThreadExecutor();
-    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+    private final ThreadPoolExecutor mainExecutorService;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final ExecutorService[] listenerExecutorServices;
+    private final ExecutorService virtualThreadExecutorService;
+    private final Executor clientListenerExecutor;
+    private final boolean ownsExecutors;
 
     private ScheduledFuture<?> pingScheduledFuture;
     private ScheduledFuture<?> refreshScheduledFuture;
-
-    private final Map<Integer, CompletableFuture<Protocol.Reply>> futures = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> commandBatchScheduledFuture;
+    private ScheduledFuture<?> commandTimeoutScheduledFuture;
+    private ScheduledFuture<?> reconnectScheduledFuture;
+    private ScheduledFuture<?> privateSubBatchScheduledFuture;
+    private ScheduledFuture<?> subRefreshScheduledFuture;
+    private long subRefreshScheduledAt;
+
+    private final Buffer commandBatch = new Buffer();
+    private int[] commandBatchIds = new int[16];
+    private int commandBatchIdsCount;
+    private final List<ReplyCallback> commandBatchCompleteOnSendCallbacks = new ArrayList<>();
+    private boolean commandBatchForced;
+    private final Set<String> privateSubBatch = new LinkedHashSet<>();
+    private final SubRefreshSchedule subRefreshSchedule;
+
+    private final InboundQueue inboundQueue;
+    private final PendingCommands pendingCommands = new PendingCommands(PENDING_COMMANDS_CAPACITY);
+    private final TimingWheel commandTimeouts;
+    private final RPCPipeline rpcPipeline;
+    private final RequestCoalescer historyCoalescer;
+    private final RequestCoalescer presenceCoalescer;
+    private final RequestCoalescer presenceStatsCoalescer;
+    private boolean rpcDraining;
     private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
 
     public Client(final ClientOptions clientOptions, final ClientEventListener clientEventListener, final String url) {
         this.clientOptions = clientOptions;
         this.clientEventListener = clientEventListener;
         this.clientConnectionState = ClientConnectionState.DISCONNECTED;
-        this.backoff = new Backoff();
-        this.clientLogger = new ClientLogger(clientOptions.isLogsEnabled());
+        this.backoff = new Backoff(clientOptions.getBackoffStrategy());
+        this.clientLogger = clientOptions.getLogger() != null ? clientOptions.getLogger() :
+                new ConsoleClientLogger(clientOptions.isLogsEnabled() ? ClientLogger.Level.DEBUG : ClientLogger.Level.WARN);
+        this.metrics = clientOptions.getMetrics();
+        this.networkClient = buildNetworkClient();
+        this.inboundQueue = new InboundQueue(clientOptions.getInboundQueueFrames(), clientOptions.getInboundQueueBytes());
+        ClientEventLoopGroup eventLoopGroup = clientOptions.getEventLoopGroup();
+        this.ownsExecutors = eventLoopGroup == null;
+        if (eventLoopGroup != null) {
+            this.mainExecutorService = eventLoopGroup.nextLoop();
+            this.scheduledExecutorService = eventLoopGroup.getTimer();
+        } else {
+            this.mainExecutorService = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+            this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        }
         this.url = url;
         this.disconnectReasonJson = "";
         this.incrementalCommandId = 0;
         this.needScheduleReconnect = true;
+        this.commandTimeouts = new TimingWheel(clientOptions.getCommandTimeoutTick(), TimeUnit.MILLISECONDS,
+                clientOptions.getCommandTimeoutWheelSize(), System.nanoTime());
+        this.rpcPipeline = clientOptions.getRpcMaxInFlight() > 0 ? new RPCPipeline(clientOptions.getRpcMaxInFlight()) : null;
+        this.historyCoalescer = new RequestCoalescer(clientOptions.getHistoryCacheTtl(), TimeUnit.MILLISECONDS, clientOptions.getReplyCacheSize());
+        this.presenceCoalescer = new RequestCoalescer(clientOptions.getPresenceCacheTtl(), TimeUnit.MILLISECONDS, clientOptions.getReplyCacheSize());
+        this.subRefreshSchedule = new SubRefreshSchedule(clientOptions.getSubRefreshTick(), TimeUnit.MILLISECONDS, System.nanoTime());
+        this.presenceStatsCoalescer = new RequestCoalescer(clientOptions.getPresenceStatsCacheTtl(), TimeUnit.MILLISECONDS, clientOptions.getReplyCacheSize());
+        this.virtualThreadExecutorService = clientOptions.isVirtualThreadListeners() ? VirtualThreads.executorOrNull() : null;
+        if (virtualThreadExecutorService != null) {
+            this.listenerExecutorServices = new ExecutorService[0];
+        } else if (eventLoopGroup != null) {
+            this.listenerExecutorServices = eventLoopGroup.getListenerExecutorServices();
+        } else {
+            this.listenerExecutorServices = new ExecutorService[clientOptions.getListenerThreads()];
+            for (int i = 0; i < listenerExecutorServices.length; i++)
+                listenerExecutorServices[i] = Executors.newSingleThreadExecutor();
+        }
+        this.clientListenerExecutor = virtualThreadExecutorService != null ?
+                new SerialExecutor(virtualThreadExecutorService) : Runnable::run;
     }
 
     public ClientOptions getClientOptions() {
@@ -125,6 +200,8 @@ public class Client {
 
         clientConnectionState = ClientConnectionState.CONNECTING;
 
+        cancelReconnect();
+
         Headers.Builder headersBuilder = new Headers.Builder();
         if (clientOptions.getHeaders() != null) {
             for (Map.Entry<String, String> entry : clientOptions.getHeaders().entrySet()) {
@@ -137,7 +214,7 @@ public class Client {
                 .headers(headersBuilder.build())
                 .build();
 
-        webSocket = buildNetworkClient()
+        webSocket = networkClient
                 .newWebSocket(request, new WebSocketListener() {
                     @Override
                     public void onOpen(WebSocket webSocket, Response response) {
@@ -149,35 +226,81 @@ public class Client {
                     @Override
                     public void onMessage(WebSocket webSocket, ByteString bytes) {
                         super.onMessage(webSocket, bytes);
-                        clientLogger.d("onMessage " + bytes.toString());
-                        mainExecutorService.submit(() -> Client.this.onMessage(bytes.toByteArray()));
+                        clientLogger.d("onMessage {}", bytes);
+                        enqueueInbound(bytes);
                     }
 
                     @Override
                     public void onClosing(WebSocket webSocket, int code, String reason) {
                         super.onClosing(webSocket, code, reason);
-                        clientLogger.d("onClosing " + code + " " + reason);
+                        clientLogger.d("onClosing {} {}", code, reason);
                         mainExecutorService.submit(() -> Client.this.onClosing(webSocket, code, reason));
                     }
 
                     @Override
                     public void onClosed(WebSocket webSocket, int code, String reason) {
                         super.onClosed(webSocket, code, reason);
-                        clientLogger.d("onClosed " + code + " " + reason);
+                        clientLogger.d("onClosed {} {}", code, reason);
                         mainExecutorService.submit(() -> Client.this.onClosed(code, reason));
                     }
 
                     @Override
                     public void onFailure(WebSocket webSocket, Throwable throwable, Response response) {
                         super.onFailure(webSocket, throwable, response);
-                        clientLogger.d("onFailure " + throwable.toString());
+                        clientLogger.d("onFailure {}", throwable);
                         mainExecutorService.submit(() -> Client.this.onFailure(throwable, response));
                     }
                 });
     }
 
+    // Runs on socket reader thread.
+    private void enqueueInbound(ByteString bytes) {
+        boolean accepted;
+        try {
+            accepted = inboundQueue.offer(bytes, clientOptions.getInboundOverloadPolicy() == InboundOverloadPolicy.BLOCK);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (!accepted) {
+            if (metrics != null)
+                metrics.onFrameDropped(bytes.size());
+            if (clientOptions.getInboundOverloadPolicy() == InboundOverloadPolicy.DISCONNECT) {
+                mainExecutorService.submit(() -> {
+                    if (clientConnectionState == ClientConnectionState.CONNECTED || clientConnectionState == ClientConnectionState.CONNECTING)
+                        closeSocket(buildDisconnectReasonJson("inbound queue overflow", true), true);
+                });
+            }
+            return;
+        }
+        if (inboundQueue.scheduleDrain())
+            mainExecutorService.submit(Client.this::drainInbound);
+    }
+
+    // A frame failing to process is logged and dropped, the rest of queue is still drained.
+    private void drainInbound() {
+        boolean drained = false;
+        try {
+            ByteString bytes;
+            while ((bytes = inboundQueue.poll()) != null) {
+                try {
+                    onMessage(bytes);
+                } catch (RuntimeException e) {
+                    clientLogger.e("inbound frame processing error", e);
+                }
+            }
+            drained = true;
+        } finally {
+            if (!drained && inboundQueue.retryDrain())
+                mainExecutorService.submit(Client.this::drainInbound);
+        }
+    }
+
+    // Built once per client, derived from shared OkHttpClient when one is set so that dispatcher,
+    // connection pool and TLS session cache are reused across clients and reconnects.
     private OkHttpClient buildNetworkClient() {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        OkHttpClient.Builder builder = clientOptions.getOkHttpClient() != null ?
+                clientOptions.getOkHttpClient().newBuilder() : new OkHttpClient.Builder();
         builder.callTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS)
                 .connectTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS)
                 .readTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS)
@@ -194,10 +317,35 @@ public class Client {
         mainExecutorService.submit(() -> {
             String reason = "clean disconnect";
             boolean needScheduleReconnect = false;
+            cancelReconnect();
             closeSocket(buildDisconnectReasonJson(reason, needScheduleReconnect), needScheduleReconnect);
         });
     }
 
+    // Disconnects and stops executors created for this client once disconnect is processed, executors of
+    // event loop group are left running. Client can not be used after close.
+    public void close() {
+        mainExecutorService.submit(() -> {
+            closing = true;
+            cancelReconnect();
+            if (webSocket == null || clientConnectionState == ClientConnectionState.DISCONNECTED) {
+                shutdownExecutors();
+                return;
+            }
+            closeSocket(buildDisconnectReasonJson("clean disconnect", false), false);
+        });
+    }
+
+    private void shutdownExecutors() {
+        if (!ownsExecutors)
+            return;
+        // Delayed tasks of timer would still run after shutdown.
+        scheduledExecutorService.shutdownNow();
+        for (ExecutorService listenerExecutorService : listenerExecutorServices)
+            listenerExecutorService.shutdown();
+        mainExecutorService.shutdown();
+    }
+
     private void closeSocket(String disconnectReasonJson, boolean needScheduleReconnect) {
         clientConnectionState = ClientConnectionState.DISCONNECTING;
         this.disconnectReasonJson = disconnectReasonJson;
@@ -219,40 +367,243 @@ public class Client {
                 .build();
     }
 
-    private ByteString serializeCommand(Protocol.Command command) {
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    ByteString serializeCommand(Protocol.Command command) {
+        return CommandEncoder.encodeDelimited(command);
+    }
+
+    private void sendCommand(Protocol.Command command, ReplyCallback callback) {
+        pendingCommands.put(command.getId(), measureCommand(command.getMethod(), callback));
+        scheduleCommandTimeoutCheck();
+        commandTimeouts.add(command.getId(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(clientOptions.getTimeout()));
+        if (metrics != null)
+            metrics.onCommandSent(command.getMethod(), pendingCommands.size());
+        if (commandBatchForced || clientOptions.getCommandBatchWindow() > 0) {
+            batchCommand(command, null);
+            return;
+        }
+        boolean sent = sendFrame(serializeCommand(command));
+        if (!sent)
+            failCommand(command.getId(), new IOException());
+    }
+
+    // Callback is wrapped only when metrics are set, so disabled metrics cost a null check per command.
+    private ReplyCallback measureCommand(Protocol.MethodType method, ReplyCallback callback) {
+        if (metrics == null)
+            return callback;
+        long sentAt = System.nanoTime();
+        return new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                metrics.onReply(method, System.nanoTime() - sentAt, hasReplyError(reply), pendingCommands.size());
+                callback.onReply(reply);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                metrics.onCommandFailed(method, System.nanoTime() - sentAt, e, pendingCommands.size());
+                callback.onFailure(e);
+            }
+        };
+    }
+
+    private boolean sendFrame(ByteString frame) {
+        if (metrics != null)
+            metrics.onFrameSent(frame.size());
+        return webSocket.send(frame);
+    }
+
+    // Used for commands server does not reply to, callback is completed with null reply once command is written.
+    private void sendCommandAndComplete(Protocol.Command command, ReplyCallback callback) {
+        if (commandBatchForced || clientOptions.getCommandBatchWindow() > 0) {
+            batchCommand(command, callback);
+            return;
+        }
+        boolean sent = sendFrame(serializeCommand(command));
+        if (!sent) {
+            callback.onFailure(new IOException());
+        } else {
+            callback.onReply(null);
+        }
+    }
+
+    private void batchCommand(Protocol.Command command, ReplyCallback completeOnSendCallback) {
+        int size = command.getSerializedSize();
+        size += CodedOutputStream.computeUInt32SizeNoTag(size);
+        if (commandBatch.size() > 0 && commandBatch.size() + size > clientOptions.getCommandBatchMaxSize())
+            flushCommandBatch();
+
         try {
-            command.writeDelimitedTo(stream);
+            command.writeDelimitedTo(commandBatch.outputStream());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        return ByteString.of(stream.toByteArray());
-    }
+        if (completeOnSendCallback != null) {
+            commandBatchCompleteOnSendCallbacks.add(completeOnSendCallback);
+        } else {
+            if (commandBatchIdsCount == commandBatchIds.length)
+                commandBatchIds = Arrays.copyOf(commandBatchIds, commandBatchIdsCount << 1);
+            commandBatchIds[commandBatchIdsCount++] = command.getId();
+        }
 
-    private void sendCommand(Protocol.Command command, CompletableFuture<Protocol.Reply> future) {
-        futures.put(command.getId(), future);
-        boolean sent = webSocket.send(serializeCommand(command));
-        if (!sent)
-            future.completeExceptionally(new IOException());
+        if (commandBatch.size() >= clientOptions.getCommandBatchMaxSize()) {
+            flushCommandBatch();
+        } else if (commandBatchScheduledFuture == null && !commandBatchForced) {
+            commandBatchScheduledFuture = scheduledExecutorService.schedule(
+                    () -> mainExecutorService.submit(Client.this::flushCommandBatch),
+                    clientOptions.getCommandBatchWindow(),
+                    TimeUnit.MILLISECONDS
+            );
+        }
     }
 
-    private void sendCommandAndComplete(Protocol.Command command, CompletableFuture<Protocol.Reply> future) {
-        futures.put(command.getId(), future);
-        boolean sent = webSocket.send(serializeCommand(command));
+    private void flushCommandBatch() {
+        cancelCommandBatchFlush();
+        if (commandBatch.size() == 0)
+            return;
+
+        // Snapshot shares batch segments instead of copying them, clear leaves shared segments to the snapshot.
+        boolean sent = sendFrame(commandBatch.snapshot());
+        commandBatch.clear();
         if (!sent) {
-            future.completeExceptionally(new IOException());
-        } else {
-            future.complete(null);
+            for (int i = 0; i < commandBatchIdsCount; i++)
+                failCommand(commandBatchIds[i], new IOException());
         }
+        for (ReplyCallback callback : commandBatchCompleteOnSendCallbacks) {
+            if (!sent) {
+                callback.onFailure(new IOException());
+            } else {
+                callback.onReply(null);
+            }
+        }
+        commandBatchIdsCount = 0;
+        commandBatchCompleteOnSendCallbacks.clear();
+    }
+
+    // Commands sent by runnable go out in one frame (up to batch max size) even with batch window disabled.
+    private void sendInOneFrame(Runnable runnable) {
+        commandBatchForced = true;
+        try {
+            runnable.run();
+        } finally {
+            commandBatchForced = false;
+        }
+        flushCommandBatch();
+    }
+
+    private void clearCommandBatch() {
+        cancelCommandBatchFlush();
+        commandBatch.clear();
+        commandBatchIdsCount = 0;
+        commandBatchCompleteOnSendCallbacks.clear();
+    }
+
+    private void cancelCommandBatchFlush() {
+        if (commandBatchScheduledFuture != null) {
+            commandBatchScheduledFuture.cancel(false);
+            commandBatchScheduledFuture = null;
+        }
+    }
+
+    private void failCommand(int id, Throwable e) {
+        ReplyCallback callback = pendingCommands.remove(id);
+        cancelCommandTimeoutCheckIfIdle();
+        if (callback != null)
+            callback.onFailure(e);
+    }
+
+    // Tick runs only while commands are pending. Wheel keeps entries of completed commands, when tick
+    // starts again no other command is pending so they all can be dropped.
+    private void scheduleCommandTimeoutCheck() {
+        if (commandTimeoutScheduledFuture != null)
+            return;
+        commandTimeouts.clear();
+        commandTimeoutScheduledFuture = scheduledExecutorService.scheduleAtFixedRate(
+                () -> mainExecutorService.submit(Client.this::advanceCommandTimeouts),
+                clientOptions.getCommandTimeoutTick(),
+                clientOptions.getCommandTimeoutTick(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private void advanceCommandTimeouts() {
+        commandTimeouts.advance(System.nanoTime(), id -> failCommand(id, new TimeoutException()));
+    }
+
+    private void cancelCommandTimeoutCheckIfIdle() {
+        if (pendingCommands.size() == 0)
+            cancelCommandTimeoutCheck();
     }
 
-    private void clearCommand(Protocol.Command command) {
-        futures.remove(command.getId());
+    private void cancelCommandTimeoutCheck() {
+        if (commandTimeoutScheduledFuture != null) {
+            commandTimeoutScheduledFuture.cancel(false);
+            commandTimeoutScheduledFuture = null;
+        }
     }
 
     private boolean hasReplyError(Protocol.Reply reply) {
         return reply.getError() != null && reply.getError().getCode() != 0;
     }
+
+    // Future is completed straight from reply processing on main thread, dependent stages should use *Async
+    // variants if they block.
+    private <T> CompletableFuture<T> sendAsyncCommand(Protocol.MethodType methodType, com.google.protobuf.ByteString params, ReplyParser<T> parser) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        mainExecutorService.submit(() -> sendCommand(buildCommand(methodType, params), completing(future, parser)));
+        return future;
+    }
+
+    private <T> ReplyCallback completing(CompletableFuture<T> future, ReplyParser<T> parser) {
+        return new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    future.completeExceptionally(new ReplyErrorException(Error.fromReply(reply)));
+                } else {
+                    try {
+                        future.complete(parser.parse(reply));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+    }
+
+    // Used for read-only methods: callback joins identical in-flight command or gets a cached reply.
+    private void sendCoalescedCommand(RequestCoalescer coalescer, Protocol.MethodType methodType, com.google.protobuf.ByteString params, ReplyCallback callback) {
+        Protocol.Reply cached = coalescer.getCached(params, System.nanoTime());
+        if (cached != null) {
+            callback.onReply(cached);
+            return;
+        }
+        if (!coalescer.add(params, callback))
+            return;
+        sendCommand(buildCommand(methodType, params), new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                for (ReplyCallback callback : coalescer.complete(params, reply, hasReplyError(reply), System.nanoTime()))
+                    callback.onReply(reply);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                for (ReplyCallback callback : coalescer.remove(params))
+                    callback.onFailure(e);
+            }
+        });
+    }
+
+    private void clearReplyCaches() {
+        historyCoalescer.clearCache();
+        presenceCoalescer.clearCache();
+        presenceStatsCoalescer.clearCache();
+    }
     //endregion
 
     //region ON OPEN
@@ -263,29 +614,37 @@ public class Client {
 
     //region CONNECT
     private void sendConnectCommand() {
-        Protocol.ConnectRequest connectRequest = Protocol.ConnectRequest.newBuilder().setToken(token).build();
+        Protocol.ConnectRequest.Builder connectRequestBuilder = Protocol.ConnectRequest.newBuilder().setToken(token);
+        if (clientOptions.isSubscribeOnConnect()) {
+            synchronized (subscriptions) {
+                for (Subscription subscription : subscriptions.values()) {
+                    if (subscription.needResubscribe() && !subscription.isPrivate())
+                        connectRequestBuilder.putSubs(subscription.getChannel(), buildSubscribeRequest(subscription.getChannel(), ""));
+                }
+            }
+        }
+        Protocol.ConnectRequest connectRequest = connectRequestBuilder.build();
         Protocol.Command command = buildCommand(Protocol.MethodType.CONNECT, connectRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            if (hasReplyError(reply)) {
-                handleConnectFailure(reply.getError().getMessage(), false);
-            } else {
-                try {
-                    handleConnectSuccess(Protocol.ConnectResult.parseFrom(reply.getResult()));
-                } catch (InvalidProtocolBufferException e) {
-                    throw new RuntimeException(e);
+        sendCommand(command, new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    handleConnectFailure(reply.getError().getMessage(), false);
+                } else {
+                    try {
+                        handleConnectSuccess(Protocol.ConnectResult.parseFrom(reply.getResult()));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
                 }
             }
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+
+            @Override
+            public void onFailure(Throwable e) {
                 handleConnectFailure("connect error", true);
-                e.printStackTrace();
-            });
-            return null;
+                clientLogger.w("connect error", e);
+            }
         });
-        sendCommand(command, future);
     }
 
     private void handleConnectSuccess(Protocol.ConnectResult connectResult) {
@@ -303,6 +662,8 @@ public class Client {
                 if (subscription.needResubscribe()) {
                     if (subscription.isPrivate()) {
                         notifyPrivateSub(subscription.getChannel());
+                    } else if (connectResult.containsSubs(subscription.getChannel())) {
+                        handleSubscribeSuccess(subscription.getChannel(), connectResult.getSubsOrThrow(subscription.getChannel()));
                     } else {
                         sendSubscribeCommand(subscription.getChannel(), "");
                     }
@@ -324,16 +685,15 @@ public class Client {
     //endregion
 
     //region ON MESSAGE
-    private void onMessage(byte[] bytes) {
+    private void onMessage(ByteString bytes) {
+        if (metrics != null)
+            metrics.onFrameReceived(bytes.size(), inboundQueue.size());
         processBytes(bytes);
     }
 
-    private void processBytes(byte[] bytes) {
-        InputStream inputStream = new ByteArrayInputStream(bytes);
+    void processBytes(ByteString bytes) {
         try {
-            while (inputStream.available() > 0) {
-                processReply(Protocol.Reply.parseDelimitedFrom(inputStream));
-            }
+            ReplyDecoder.decode(bytes, this::processReply);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -341,60 +701,55 @@ public class Client {
 
     private void processReply(Protocol.Reply reply) {
         if (reply.getId() > 0) {
-            CompletableFuture<Protocol.Reply> future = futures.get(reply.getId());
-            if (future != null)
-                future.complete(reply);
+            ReplyCallback callback = pendingCommands.remove(reply.getId());
+            cancelCommandTimeoutCheckIfIdle();
+            if (callback != null)
+                callback.onReply(reply);
         } else {
             processAsyncReply(reply);
         }
     }
 
-    private void processAsyncReply(Protocol.Reply reply) {
+    void processAsyncReply(Protocol.Reply reply) {
         try {
-            Protocol.Push push = Protocol.Push.parseFrom(reply.getResult());
+            Protocol.Push push = ReplyDecoder.parse(Protocol.Push.parser(), reply.getResult());
+            if (metrics != null)
+                metrics.onPush(push.getType());
             switch (push.getType()) {
                 case PUBLICATION: {
                     Subscription subscription = getSubscriptionOrNull(push.getChannel());
                     if (subscription != null) {
-                        Protocol.Publication publication = Protocol.Publication.parseFrom(push.getData());
-                        SubscriptionEventListener.PublicationEvent publicationEvent =
-                                SubscriptionEventListener.PublicationEvent.fromProto(connectionId, push.getChannel(), publication);
-                        subscription.getSubscriptionEventListener().onPublication(subscription, publicationEvent);
+                        Protocol.Publication publication = ReplyDecoder.parse(Protocol.Publication.parser(), push.getData());
+                        subscription.onPublication(publication);
                     }
                     break;
                 }
                 case JOIN: {
                     Subscription subscription = getSubscriptionOrNull(push.getChannel());
                     if (subscription != null) {
-                        Protocol.Join join = Protocol.Join.parseFrom(push.getData());
-                        SubscriptionEventListener.JoinEvent joinEvent =
-                                SubscriptionEventListener.JoinEvent.fromProto(connectionId, push.getChannel(), join);
-                        subscription.getSubscriptionEventListener().onJoin(subscription, joinEvent);
+                        Protocol.Join join = ReplyDecoder.parse(Protocol.Join.parser(), push.getData());
+                        subscription.onJoin(join);
                     }
                     break;
                 }
                 case LEAVE: {
                     Subscription subscription = getSubscriptionOrNull(push.getChannel());
                     if (subscription != null) {
-                        Protocol.Leave leave = Protocol.Leave.parseFrom(push.getData());
-                        SubscriptionEventListener.LeaveEvent leaveEvent =
-                                SubscriptionEventListener.LeaveEvent.fromProto(connectionId, push.getChannel(), leave);
-                        subscription.getSubscriptionEventListener().onLeave(subscription, leaveEvent);
+                        Protocol.Leave leave = ReplyDecoder.parse(Protocol.Leave.parser(), push.getData());
+                        subscription.onLeave(leave);
                     }
                     break;
                 }
                 case UNSUB: {
                     Subscription subscription = getSubscriptionOrNull(push.getChannel());
                     if (subscription != null) {
-                        Protocol.Unsub unsubscribe = Protocol.Unsub.parseFrom(push.getData());
-                        SubscriptionEventListener.UnsubscribeEvent unsubscribeEvent =
-                                SubscriptionEventListener.UnsubscribeEvent.fromProto(connectionId, push.getChannel(), unsubscribe);
-                        subscription.getSubscriptionEventListener().onUnsubscribe(subscription, unsubscribeEvent);
+                        Protocol.Unsub unsubscribe = ReplyDecoder.parse(Protocol.Unsub.parser(), push.getData());
+                        subscription.onUnsub(unsubscribe);
                     }
                     break;
                 }
                 case MESSAGE:
-                    Protocol.Message message = Protocol.Message.parseFrom(push.getData());
+                    Protocol.Message message = ReplyDecoder.parse(Protocol.Message.parser(), push.getData());
                     ClientEventListener.MessageData messageData = new ClientEventListener.MessageData();
                     messageData.setConnectionId(connectionId);
                     messageData.setChannel(push.getChannel());
@@ -450,25 +805,52 @@ public class Client {
 
         cancelRefresh();
 
+        clearCommandBatch();
+
+        clearPrivateSubBatch();
+
+        clearSubRefresh();
+
+        cancelCommandTimeoutCheck();
+
+        inboundQueue.clear();
+
+        clearReplyCaches();
+
         synchronized (subscriptions) {
             for (Map.Entry<String, Subscription> entry : subscriptions.entrySet())
                 entry.getValue().onUnsubscribed();
         }
 
+        List<ReplyCallback> failedCallbacks = null;
         if (previousConnectionState != ClientConnectionState.DISCONNECTED) {
-            for (Map.Entry<Integer, CompletableFuture<Protocol.Reply>> entry : futures.entrySet()) {
-                CompletableFuture<Protocol.Reply> future = entry.getValue();
-                future.completeExceptionally(new IOException());
-            }
+            failedCallbacks = pendingCommands.removeAll();
             ClientEventListener.DisconnectData disconnectData =
                     new ClientEventListener.DisconnectData(connectionId, disconnectReason, needScheduleReconnect);
             clientEventListener.onDisconnect(this, disconnectData);
         }
 
-        this.needScheduleReconnect = needScheduleReconnect;
+        if (metrics != null)
+            metrics.onDisconnect(disconnectReason, needScheduleReconnect);
+
+        this.needScheduleReconnect = needScheduleReconnect && !closing;
         if (this.needScheduleReconnect) {
             scheduleReconnect();
         }
+
+        // Pending commands are failed once client state is settled, already on main thread so no extra hop is needed.
+        // Queued RPC calls go first so that slots freed by failing in-flight ones do not admit them.
+        if (rpcPipeline != null) {
+            for (RPCPipeline.Call call : rpcPipeline.clear())
+                call.callback.onFailure(new IOException());
+        }
+        if (failedCallbacks != null) {
+            for (ReplyCallback callback : failedCallbacks)
+                callback.onFailure(new IOException());
+        }
+
+        if (closing)
+            shutdownExecutors();
     }
     //endregion
 
@@ -479,6 +861,114 @@ public class Client {
     }
     //endregion
 
+    //region SUB REFRESH
+    // Token is refreshed prefetch ahead of expiry but not before half of ttl has passed.
+    private void scheduleSubRefresh(String channel, int ttl) {
+        long ttlMillis = TimeUnit.SECONDS.toMillis(ttl);
+        long refreshIn = ttlMillis - Math.min(clientOptions.getSubRefreshPrefetch(), ttlMillis / 2);
+        subRefreshSchedule.add(channel, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(refreshIn));
+        scheduleSubRefreshTimer();
+    }
+
+    // One timer for all subscriptions, set to the earliest tick of schedule.
+    private void scheduleSubRefreshTimer() {
+        if (subRefreshSchedule.isEmpty())
+            return;
+        long deadline = subRefreshSchedule.nextDeadline();
+        if (subRefreshScheduledFuture != null) {
+            if (deadline - subRefreshScheduledAt >= 0)
+                return;
+            subRefreshScheduledFuture.cancel(false);
+        }
+        subRefreshScheduledAt = deadline;
+        subRefreshScheduledFuture = scheduledExecutorService.schedule(
+                () -> mainExecutorService.submit(Client.this::refreshDueSubscriptions),
+                Math.max(0, deadline - System.nanoTime()),
+                TimeUnit.NANOSECONDS
+        );
+    }
+
+    private void refreshDueSubscriptions() {
+        subRefreshScheduledFuture = null;
+        List<String> channels = new ArrayList<>();
+        for (String channel : subRefreshSchedule.poll(System.nanoTime())) {
+            Subscription subscription = getSubscriptionOrNull(channel);
+            if (subscription != null && subscription.getState() == SubscriptionState.SUBSCRIBED && !subscription.isSuspended())
+                channels.add(channel);
+        }
+        if (!channels.isEmpty() && clientConnectionState == ClientConnectionState.CONNECTED) {
+            if (clientOptions.getPrivateSubBatchWindow() > 0) {
+                notifyPrivateSubBatch(channels, true);
+            } else {
+                for (String channel : channels)
+                    notifyPrivateSubRefresh(channel);
+            }
+        }
+        scheduleSubRefreshTimer();
+    }
+
+    private void notifyPrivateSubRefresh(String channel) {
+        Subscription subscription = getSubscriptionOrNull(channel);
+        if (subscription == null)
+            return;
+        SubscriptionEventListener.PrivateSubEvent privateSubEvent =
+                new SubscriptionEventListener.PrivateSubEvent(connectionId, channel);
+        subscription.onPrivateSub(privateSubEvent,
+                new SubscriptionEventListener.PrivateSubTokenCallback() {
+                    @Override
+                    public void onFail(Throwable e) {
+                        clientLogger.w("sub refresh token error", e);
+                    }
+
+                    @Override
+                    public void onSuccess(String token) {
+                        mainExecutorService.submit(() -> {
+                            if (clientConnectionState == ClientConnectionState.CONNECTED && connectionId.equals(privateSubEvent.getConnectionId()))
+                                sendSubRefreshCommand(channel, token);
+                        });
+                    }
+                });
+    }
+
+    // Failed refresh is only logged: server unsubscribes channel once token expires and it is subscribed again.
+    private void sendSubRefreshCommand(String channel, String token) {
+        Protocol.SubRefreshRequest subRefreshRequest = Protocol.SubRefreshRequest.newBuilder()
+                .setChannel(channel)
+                .setToken(token)
+                .build();
+        Protocol.Command command = buildCommand(Protocol.MethodType.SUB_REFRESH, subRefreshRequest.toByteString());
+        sendCommand(command, new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    clientLogger.w("sub refresh error: {}", reply.getError().getMessage(), null);
+                    return;
+                }
+                try {
+                    Protocol.SubRefreshResult subRefreshResult = Protocol.SubRefreshResult.parseFrom(reply.getResult());
+                    if (subRefreshResult.getExpires() && getSubscriptionOrNull(channel) != null)
+                        scheduleSubRefresh(channel, subRefreshResult.getTtl());
+                } catch (InvalidProtocolBufferException e) {
+                    onFailure(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                clientLogger.w("sub refresh error", e);
+            }
+        });
+    }
+
+    private void clearSubRefresh() {
+        subRefreshSchedule.clear();
+        if (subRefreshScheduledFuture != null) {
+            subRefreshScheduledFuture.cancel(false);
+            subRefreshScheduledFuture = null;
+        }
+    }
+    //endregion
+
     //region SUBSCRIPTIONS
     private Subscription getSubscriptionOrNull(String channel) {
         Subscription subscription;
@@ -490,9 +980,11 @@ public class Client {
 
     public void subscribe(String channel, SubscriptionEventListener listener) {
         mainExecutorService.submit(() -> {
-            Subscription subscription = new Subscription(this, channel, listener);
+            Subscription subscription = new Subscription(this, channel, listener, getListenerExecutor(channel));
             synchronized (subscriptions) {
-                subscriptions.remove(channel);
+                Subscription previous = subscriptions.remove(channel);
+                if (previous != null)
+                    previous.onRemoved(null);
                 subscriptions.put(channel, subscription);
                 if (subscription.isPrivate()) {
                     notifyPrivateSub(subscription.getChannel());
@@ -503,12 +995,24 @@ public class Client {
         });
     }
 
+    private Executor getListenerExecutor(String channel) {
+        if (virtualThreadExecutorService != null)
+            return new SerialExecutor(virtualThreadExecutorService);
+        if (listenerExecutorServices.length == 0)
+            return Runnable::run;
+        return listenerExecutorServices[(channel.hashCode() & Integer.MAX_VALUE) % listenerExecutorServices.length];
+    }
+
     private void notifyPrivateSub(String channel) {
+        if (clientOptions.getPrivateSubBatchWindow() > 0) {
+            batchPrivateSub(channel);
+            return;
+        }
         Subscription subscription = getSubscriptionOrNull(channel);
         if (subscription != null) {
             SubscriptionEventListener.PrivateSubEvent privateSubEvent =
                     new SubscriptionEventListener.PrivateSubEvent(connectionId, channel);
-            subscription.getSubscriptionEventListener().onPrivateSub(this, privateSubEvent,
+            subscription.onPrivateSub(privateSubEvent,
                     new SubscriptionEventListener.PrivateSubTokenCallback() {
                         @Override
                         public void onFail(Throwable e) {
@@ -529,39 +1033,125 @@ public class Client {
         }
     }
 
-    private void sendSubscribeCommand(String channel, String token) {
-        Protocol.SubscribeRequest subscribeRequest = Protocol.SubscribeRequest.newBuilder()
+    private void batchPrivateSub(String channel) {
+        privateSubBatch.add(channel);
+        if (privateSubBatchScheduledFuture == null) {
+            privateSubBatchScheduledFuture = scheduledExecutorService.schedule(
+                    () -> mainExecutorService.submit(Client.this::flushPrivateSubBatch),
+                    clientOptions.getPrivateSubBatchWindow(),
+                    TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    private void flushPrivateSubBatch() {
+        privateSubBatchScheduledFuture = null;
+        if (privateSubBatch.isEmpty())
+            return;
+        List<String> channels = new ArrayList<>(privateSubBatch);
+        privateSubBatch.clear();
+        notifyPrivateSubBatch(channels, false);
+    }
+
+    // Tokens of a batch are used either to subscribe or to refresh subscriptions, in both cases in one frame.
+    private void notifyPrivateSubBatch(List<String> channels, boolean refresh) {
+        ClientEventListener.PrivateSubBatchData privateSubBatchData =
+                new ClientEventListener.PrivateSubBatchData(connectionId, channels);
+        ClientEventListener.PrivateSubBatchCallback privateSubBatchCallback = new ClientEventListener.PrivateSubBatchCallback() {
+            @Override
+            public void onSuccess(Map<String, String> tokens) {
+                mainExecutorService.submit(() -> {
+                    if (clientConnectionState != ClientConnectionState.CONNECTED || !connectionId.equals(privateSubBatchData.getConnectionId()))
+                        return;
+                    sendInOneFrame(() -> {
+                        for (String channel : channels) {
+                            if (getSubscriptionOrNull(channel) == null)
+                                continue;
+                            String token = tokens.get(channel);
+                            if (refresh) {
+                                if (token != null)
+                                    sendSubRefreshCommand(channel, token);
+                            } else if (token != null) {
+                                sendSubscribeCommand(channel, token);
+                            } else {
+                                handleSubscribeFailure(channel, 0, "private subscribe error");
+                            }
+                        }
+                    });
+                });
+            }
+
+            @Override
+            public void onFail(Throwable e) {
+                if (refresh) {
+                    clientLogger.w("sub refresh token error", e);
+                    return;
+                }
+                mainExecutorService.submit(() -> {
+                    if (!connectionId.equals(privateSubBatchData.getConnectionId()))
+                        return;
+                    for (String channel : channels)
+                        handleSubscribeFailure(channel, 0, "private subscribe error");
+                });
+            }
+        };
+        clientListenerExecutor.execute(() -> clientEventListener.onPrivateSubBatch(this, privateSubBatchData, privateSubBatchCallback));
+    }
+
+    private void clearPrivateSubBatch() {
+        privateSubBatch.clear();
+        if (privateSubBatchScheduledFuture != null) {
+            privateSubBatchScheduledFuture.cancel(false);
+            privateSubBatchScheduledFuture = null;
+        }
+    }
+
+    private Protocol.SubscribeRequest buildSubscribeRequest(String channel, String token) {
+        Protocol.SubscribeRequest.Builder builder = Protocol.SubscribeRequest.newBuilder()
                 .setChannel(channel)
-                .setToken(token)
-                .build();
+                .setToken(token);
+        Subscription subscription = getSubscriptionOrNull(channel);
+        if (subscription != null && subscription.isRecoverable()) {
+            builder.setRecover(true)
+                    .setSeq(subscription.getSeq())
+                    .setGen(subscription.getGen())
+                    .setEpoch(subscription.getEpoch());
+        }
+        return builder.build();
+    }
+
+    private void sendSubscribeCommand(String channel, String token) {
+        Protocol.SubscribeRequest subscribeRequest = buildSubscribeRequest(channel, token);
         Protocol.Command command = buildCommand(Protocol.MethodType.SUBSCRIBE, subscribeRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            if (hasReplyError(reply)) {
-                handleSubscribeFailure(channel, reply.getError().getCode(), reply.getError().getMessage());
-            } else {
-                try {
-                    handleSubscribeSuccess(channel, Protocol.SubscribeResult.parseFrom(reply.getResult()));
-                } catch (InvalidProtocolBufferException e) {
-                    throw new RuntimeException(e);
+        sendCommand(command, new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    handleSubscribeFailure(channel, reply.getError().getCode(), reply.getError().getMessage());
+                } else {
+                    try {
+                        handleSubscribeSuccess(channel, Protocol.SubscribeResult.parseFrom(reply.getResult()));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
                 }
             }
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+
+            @Override
+            public void onFailure(Throwable e) {
                 handleSubscribeFailure(channel, 0, "subscribe error");
-                e.printStackTrace();
-            });
-            return null;
+                clientLogger.w("subscribe error", e);
+            }
         });
-        sendCommand(command, future);
     }
 
     private void handleSubscribeSuccess(String channel, Protocol.SubscribeResult subscribeResult) {
         Subscription subscription = getSubscriptionOrNull(channel);
-        if (subscription != null)
+        if (subscription != null) {
             subscription.onSubscribeSuccess(subscribeResult);
+            if (subscribeResult.getExpires() && subscription.isPrivate())
+                scheduleSubRefresh(channel, subscribeResult.getTtl());
+        }
     }
 
     private void handleSubscribeFailure(String channel, int code, String message) {
@@ -570,6 +1160,8 @@ public class Client {
             synchronized (subscriptions) {
                 subscription.onSubscribeError(code, message);
                 subscriptions.remove(channel);
+                subRefreshSchedule.remove(channel);
+                subscription.onRemoved(new IllegalStateException("subscribe error " + code + ": " + message));
             }
         }
     }
@@ -581,6 +1173,8 @@ public class Client {
                 synchronized (subscriptions) {
                     subscription.onUnsubscribed();
                     subscriptions.remove(subscription.getChannel());
+                    subscription.onRemoved(null);
+                    subRefreshSchedule.remove(channel);
                     if (clientConnectionState == ClientConnectionState.CONNECTED)
                         sendUnsubscribeCommand(subscription);
                 }
@@ -588,23 +1182,47 @@ public class Client {
         });
     }
 
+    // Flow control of Subscription publishers: server side unsubscribe keeping subscription and its stream position.
+    public void suspendSubscription(String channel) {
+        mainExecutorService.submit(() -> {
+            Subscription subscription = getSubscriptionOrNull(channel);
+            if (subscription != null && subscription.isSuspended() && clientConnectionState == ClientConnectionState.CONNECTED) {
+                subRefreshSchedule.remove(channel);
+                sendUnsubscribeCommand(subscription);
+            }
+        });
+    }
+
+    // Subscribes suspended subscription again, publications missed meanwhile are recovered.
+    public void resumeSubscription(String channel) {
+        mainExecutorService.submit(() -> {
+            Subscription subscription = getSubscriptionOrNull(channel);
+            if (subscription == null || !subscription.isSuspended() || clientConnectionState != ClientConnectionState.CONNECTED)
+                return;
+            if (subscription.isPrivate()) {
+                notifyPrivateSub(channel);
+            } else {
+                sendSubscribeCommand(channel, "");
+            }
+        });
+    }
+
     private void sendUnsubscribeCommand(Subscription subscription) {
         String channel = subscription.getChannel();
         Protocol.UnsubscribeRequest unsubscribeRequest = Protocol.UnsubscribeRequest.newBuilder()
                 .setChannel(channel)
                 .build();
         Protocol.Command command = buildCommand(Protocol.MethodType.UNSUBSCRIBE, unsubscribeRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
-                e.printStackTrace();
-            });
-            return null;
+        sendCommand(command, new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                clientLogger.w("unsubscribe error", e);
+            }
         });
-        sendCommand(command, future);
     }
     //endregion
 
@@ -613,28 +1231,32 @@ public class Client {
         mainExecutorService.submit(() -> sendHistoryCommand(historyRequest, historyCallback));
     }
 
+    public CompletableFuture<HistoryCallback.HistoryResult> history(HistoryRequest historyRequest) {
+        CompletableFuture<HistoryCallback.HistoryResult> future = new CompletableFuture<>();
+        mainExecutorService.submit(() -> sendCoalescedCommand(historyCoalescer, Protocol.MethodType.HISTORY, historyRequest.toByteString(), completing(future, HistoryCallback.HistoryResult::fromReply)));
+        return future;
+    }
+
     private void sendHistoryCommand(HistoryRequest historyRequest, HistoryCallback historyCallback) {
-        Protocol.Command command = buildCommand(Protocol.MethodType.HISTORY, historyRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            if (hasReplyError(reply)) {
-                historyCallback.onReplyError(Error.fromReply(reply));
-            } else {
-                try {
-                    historyCallback.onReplySuccess(HistoryCallback.HistoryResult.fromReply(reply));
-                } catch (InvalidProtocolBufferException e) {
-                    throw new RuntimeException(e);
+        sendCoalescedCommand(historyCoalescer, Protocol.MethodType.HISTORY, historyRequest.toByteString(), new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    historyCallback.onReplyError(Error.fromReply(reply));
+                } else {
+                    try {
+                        historyCallback.onReplySuccess(HistoryCallback.HistoryResult.fromReply(reply));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
                 }
             }
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+
+            @Override
+            public void onFailure(Throwable e) {
                 historyCallback.onSendFail(e);
-            });
-            return null;
+            }
         });
-        sendCommand(command, future);
     }
     //endregion
 
@@ -654,18 +1276,17 @@ public class Client {
                 return;
             Protocol.PingRequest pingRequest = Protocol.PingRequest.newBuilder().build();
             Protocol.Command command = buildCommand(Protocol.MethodType.PING, pingRequest.toByteString());
-            CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-            future.thenAccept(reply ->
-                    clearCommand(command)
-            ).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-                mainExecutorService.submit(() -> {
-                    clearCommand(command);
+            sendCommand(command, new ReplyCallback() {
+                @Override
+                public void onReply(Protocol.Reply reply) {
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
                     handlePingFailure();
-                    e.printStackTrace();
-                });
-                return null;
+                    clientLogger.w("ping error", e);
+                }
             });
-            sendCommand(command, future);
         });
     }
 
@@ -675,7 +1296,7 @@ public class Client {
 
     private void cancelPing() {
         if (pingScheduledFuture != null)
-            pingScheduledFuture.cancel(true);
+            pingScheduledFuture.cancel(false);
     }
     //endregion
 
@@ -684,28 +1305,65 @@ public class Client {
         mainExecutorService.submit(() -> sendPresenceCommand(presenceRequest, presenceCallback));
     }
 
-    private void sendPresenceCommand(PresenceRequest presenceRequest, PresenceCallback presenceCallback) {
-        Protocol.Command command = buildCommand(Protocol.MethodType.PRESENCE, presenceRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            if (hasReplyError(reply)) {
-                presenceCallback.onReplyError(Error.fromReply(reply));
-            } else {
+    public CompletableFuture<PresenceCallback.PresenceResult> presence(PresenceRequest presenceRequest) {
+        CompletableFuture<PresenceCallback.PresenceResult> future = new CompletableFuture<>();
+        mainExecutorService.submit(() -> sendCoalescedCommand(presenceCoalescer, Protocol.MethodType.PRESENCE, presenceRequest.toByteString(), completing(future, PresenceCallback.PresenceResult::fromReply)));
+        return future;
+    }
+
+    // Seeds presence mirror of subscription, called by subscription when mirror is enabled and on every subscribe.
+    public void syncPresence(String channel) {
+        mainExecutorService.submit(() -> sendPresenceSyncCommand(channel));
+    }
+
+    private void sendPresenceSyncCommand(String channel) {
+        if (clientConnectionState != ClientConnectionState.CONNECTED)
+            return;
+        Protocol.Command command = buildCommand(Protocol.MethodType.PRESENCE, new PresenceRequest(channel).toByteString());
+        sendCommand(command, new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    clientLogger.w("presence sync error: {}", reply.getError().getMessage(), null);
+                    return;
+                }
+                Subscription subscription = getSubscriptionOrNull(channel);
+                if (subscription == null)
+                    return;
                 try {
-                    presenceCallback.onReplySuccess(PresenceCallback.PresenceResult.fromReply(reply));
+                    subscription.onPresence(Protocol.PresenceResult.parseFrom(reply.getResult()));
                 } catch (InvalidProtocolBufferException e) {
-                    throw new RuntimeException(e);
+                    onFailure(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                clientLogger.w("presence sync error", e);
+            }
+        });
+    }
+
+    private void sendPresenceCommand(PresenceRequest presenceRequest, PresenceCallback presenceCallback) {
+        sendCoalescedCommand(presenceCoalescer, Protocol.MethodType.PRESENCE, presenceRequest.toByteString(), new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    presenceCallback.onReplyError(Error.fromReply(reply));
+                } else {
+                    try {
+                        presenceCallback.onReplySuccess(PresenceCallback.PresenceResult.fromReply(reply));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
                 }
             }
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+
+            @Override
+            public void onFailure(Throwable e) {
                 presenceCallback.onSendFail(e);
-            });
-            return null;
+            }
         });
-        sendCommand(command, future);
     }
     //endregion
 
@@ -714,28 +1372,32 @@ public class Client {
         mainExecutorService.submit(() -> sendPresenceStatsCommand(presenceStatsRequest, presenceStatsCallback));
     }
 
+    public CompletableFuture<PresenceStatsCallback.PresenceStatsResult> presenceStats(PresenceStatsRequest presenceStatsRequest) {
+        CompletableFuture<PresenceStatsCallback.PresenceStatsResult> future = new CompletableFuture<>();
+        mainExecutorService.submit(() -> sendCoalescedCommand(presenceStatsCoalescer, Protocol.MethodType.PRESENCE_STATS, presenceStatsRequest.toByteString(), completing(future, PresenceStatsCallback.PresenceStatsResult::fromReply)));
+        return future;
+    }
+
     private void sendPresenceStatsCommand(PresenceStatsRequest presenceStatsRequest, PresenceStatsCallback presenceStatsCallback) {
-        Protocol.Command command = buildCommand(Protocol.MethodType.PRESENCE_STATS, presenceStatsRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            if (hasReplyError(reply)) {
-                presenceStatsCallback.onReplyError(Error.fromReply(reply));
-            } else {
-                try {
-                    presenceStatsCallback.onReplySuccess(PresenceStatsCallback.PresenceStatsResult.fromReply(reply));
-                } catch (InvalidProtocolBufferException e) {
-                    throw new RuntimeException(e);
+        sendCoalescedCommand(presenceStatsCoalescer, Protocol.MethodType.PRESENCE_STATS, presenceStatsRequest.toByteString(), new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    presenceStatsCallback.onReplyError(Error.fromReply(reply));
+                } else {
+                    try {
+                        presenceStatsCallback.onReplySuccess(PresenceStatsCallback.PresenceStatsResult.fromReply(reply));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
                 }
             }
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+
+            @Override
+            public void onFailure(Throwable e) {
                 presenceStatsCallback.onSendFail(e);
-            });
-            return null;
+            }
         });
-        sendCommand(command, future);
     }
     //endregion
 
@@ -745,28 +1407,33 @@ public class Client {
         mainExecutorService.submit(() -> sendPublishCommand(publishRequest, publishCallback));
     }
 
+    // Future completes exceptionally with ReplyErrorException on server error and with IOException or
+    // TimeoutException when command could not be delivered, same for all future returning methods below.
+    public CompletableFuture<PublishCallback.PublishResult> publish(PublishRequest publishRequest) {
+        return sendAsyncCommand(Protocol.MethodType.PUBLISH, publishRequest.toByteString(), PublishCallback.PublishResult::fromReply);
+    }
+
     private void sendPublishCommand(PublishRequest publishRequest, PublishCallback publishCallback) {
         Protocol.Command command = buildCommand(Protocol.MethodType.PUBLISH, publishRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            if (hasReplyError(reply)) {
-                publishCallback.onReplyError(Error.fromReply(reply));
-            } else {
-                try {
-                    publishCallback.onReplySuccess(PublishCallback.PublishResult.fromReply(reply));
-                } catch (InvalidProtocolBufferException e) {
-                    throw new RuntimeException(e);
+        sendCommand(command, new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    publishCallback.onReplyError(Error.fromReply(reply));
+                } else {
+                    try {
+                        publishCallback.onReplySuccess(PublishCallback.PublishResult.fromReply(reply));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
                 }
             }
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+
+            @Override
+            public void onFailure(Throwable e) {
                 publishCallback.onSendFail(e);
-            });
-            return null;
+            }
         });
-        sendCommand(command, future);
     }
     //endregion
 
@@ -800,7 +1467,7 @@ public class Client {
                 }
             };
 
-            clientEventListener.onRefresh(this, refreshTokenData, refreshTokenCallback);
+            clientListenerExecutor.execute(() -> clientEventListener.onRefresh(this, refreshTokenData, refreshTokenCallback));
         });
     }
 
@@ -809,27 +1476,26 @@ public class Client {
                 .setToken(token)
                 .build();
         Protocol.Command command = buildCommand(Protocol.MethodType.REFRESH, refreshRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            if (hasReplyError(reply)) {
-                handleRefreshFailure(reply.getError().getMessage(), false);
-            } else {
-                try {
-                    handleRefreshSuccess(Protocol.RefreshResult.parseFrom(reply.getResult()));
-                } catch (InvalidProtocolBufferException e) {
-                    throw new RuntimeException(e);
+        sendCommand(command, new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    handleRefreshFailure(reply.getError().getMessage(), false);
+                } else {
+                    try {
+                        handleRefreshSuccess(Protocol.RefreshResult.parseFrom(reply.getResult()));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
                 }
             }
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+
+            @Override
+            public void onFailure(Throwable e) {
                 handleRefreshFailure("refresh error", true);
-                e.printStackTrace();
-            });
-            return null;
+                clientLogger.w("refresh error", e);
+            }
         });
-        sendCommand(command, future);
     }
 
     private void handleRefreshSuccess(Protocol.RefreshResult refreshResult) {
@@ -844,24 +1510,33 @@ public class Client {
 
     private void cancelRefresh() {
         if (refreshScheduledFuture != null)
-            refreshScheduledFuture.cancel(true);
+            refreshScheduledFuture.cancel(false);
     }
     //endregion
 
     //region RECONNECT
     private void scheduleReconnect() {
-        reconnectExecutorService.submit(() -> {
-            try {
-                Thread.sleep(backoff.duration());
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-            }
-            mainExecutorService.submit(() -> {
-                if (needScheduleReconnect) {
-                    openSocket();
-                }
-            });
-        });
+        long duration = backoff.duration();
+        if (metrics != null)
+            metrics.onReconnectScheduled(duration);
+        cancelReconnect();
+        reconnectScheduledFuture = scheduledExecutorService.schedule(
+                () -> mainExecutorService.submit(() -> {
+                    reconnectScheduledFuture = null;
+                    if (needScheduleReconnect) {
+                        openSocket();
+                    }
+                }),
+                duration,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private void cancelReconnect() {
+        if (reconnectScheduledFuture != null) {
+            reconnectScheduledFuture.cancel(false);
+            reconnectScheduledFuture = null;
+        }
     }
     //endregion
 
@@ -871,28 +1546,73 @@ public class Client {
         mainExecutorService.submit(() -> sendRPCCommand(rpcRequest, rpcCallback));
     }
 
+    public CompletableFuture<RPCCallback.RPCResult> rpc(RPCRequest rpcRequest) {
+        CompletableFuture<RPCCallback.RPCResult> future = new CompletableFuture<>();
+        mainExecutorService.submit(() -> sendRPC(rpcRequest.toByteString(), completing(future, RPCCallback.RPCResult::fromReply)));
+        return future;
+    }
+
     private void sendRPCCommand(RPCRequest rpcRequest, RPCCallback rpcCallback) {
-        Protocol.Command command = buildCommand(Protocol.MethodType.RPC, rpcRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            if (hasReplyError(reply)) {
-                rpcCallback.onReplyError(Error.fromReply(reply));
-            } else {
-                try {
-                    rpcCallback.onReplySuccess(RPCCallback.RPCResult.fromReply(reply));
-                } catch (InvalidProtocolBufferException e) {
-                    throw new RuntimeException(e);
+        sendRPC(rpcRequest.toByteString(), new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                if (hasReplyError(reply)) {
+                    rpcCallback.onReplyError(Error.fromReply(reply));
+                } else {
+                    try {
+                        rpcCallback.onReplySuccess(RPCCallback.RPCResult.fromReply(reply));
+                    } catch (InvalidProtocolBufferException e) {
+                        onFailure(e);
+                    }
                 }
             }
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+
+            @Override
+            public void onFailure(Throwable e) {
                 rpcCallback.onSendFail(e);
-            });
-            return null;
+            }
+        });
+    }
+
+    private void sendRPC(com.google.protobuf.ByteString params, ReplyCallback callback) {
+        if (rpcPipeline == null) {
+            sendCommand(buildCommand(Protocol.MethodType.RPC, params), callback);
+            return;
+        }
+        rpcPipeline.enqueue(new RPCPipeline.Call(params, callback, System.nanoTime()));
+        drainRPCPipeline();
+    }
+
+    // Calls are admitted in a loop rather than from reply callbacks so a run of synchronous send failures
+    // does not recurse through the whole queue.
+    private void drainRPCPipeline() {
+        if (rpcDraining)
+            return;
+        rpcDraining = true;
+        RPCPipeline.Call call;
+        while ((call = rpcPipeline.poll()) != null)
+            admitRPC(call);
+        rpcDraining = false;
+    }
+
+    private void admitRPC(RPCPipeline.Call call) {
+        if (metrics != null)
+            metrics.onRpcAdmitted(System.nanoTime() - call.queuedAt, rpcPipeline.queued());
+        sendCommand(buildCommand(Protocol.MethodType.RPC, call.params), new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                rpcPipeline.release();
+                call.callback.onReply(reply);
+                drainRPCPipeline();
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                rpcPipeline.release();
+                call.callback.onFailure(e);
+                drainRPCPipeline();
+            }
         });
-        sendCommand(command, future);
     }
     //endregion
 
@@ -904,18 +1624,17 @@ public class Client {
 
     private void sendSendCommand(SendRequest sendRequest, SendCallback sendCallback) {
         Protocol.Command command = buildCommand(Protocol.MethodType.SEND, sendRequest.toByteString());
-        CompletableFuture<Protocol.Reply> future = new CompletableFuture<>();
-        future.thenAccept(reply -> {
-            clearCommand(command);
-            sendCallback.onSendSuccess();
-        }).orTimeout(clientOptions.getTimeout(), TimeUnit.MILLISECONDS).exceptionally(e -> {
-            mainExecutorService.submit(() -> {
-                clearCommand(command);
+        sendCommandAndComplete(command, new ReplyCallback() {
+            @Override
+            public void onReply(Protocol.Reply reply) {
+                sendCallback.onSendSuccess();
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
                 sendCallback.onSendFail(e);
-            });
-            return null;
+            }
         });
-        sendCommandAndComplete(command, future);
     }
     //endregion
 }
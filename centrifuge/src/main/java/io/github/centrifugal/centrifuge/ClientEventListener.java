@@ -1,5 +1,8 @@
 package io.github.centrifugal.centrifuge;
 
+import java.util.List;
+import java.util.Map;
+
 import io.github.centrifugal.centrifuge.protobuf.Protocol;
 import okhttp3.Response;
 
@@ -18,6 +21,12 @@ public abstract class ClientEventListener {
 
     }
 
+    // Called instead of SubscriptionEventListener.onPrivateSub when ClientOptions.setPrivateSubBatchWindow is set,
+    // with all private channels that needed a token during the window.
+    public void onPrivateSubBatch(Client client, PrivateSubBatchData data, PrivateSubBatchCallback cb) {
+
+    }
+
     public void onDisconnect(Client client, DisconnectData data) {
 
     }
@@ -124,6 +133,33 @@ public abstract class ClientEventListener {
         void onFail(Throwable e);
     }
 
+    public static class PrivateSubBatchData {
+
+        private String connectionId;
+        private List<String> channels;
+
+        public PrivateSubBatchData(String connectionId, List<String> channels) {
+            this.connectionId = connectionId;
+            this.channels = channels;
+        }
+
+        public String getConnectionId() {
+            return connectionId;
+        }
+
+        public List<String> getChannels() {
+            return channels;
+        }
+    }
+
+    // Tokens are mapped by channel, channels missing from the map fail to subscribe.
+    public interface PrivateSubBatchCallback {
+
+        void onSuccess(Map<String, String> tokens);
+
+        void onFail(Throwable e);
+    }
+
     public static class DisconnectData {
 
         private String connectionId;
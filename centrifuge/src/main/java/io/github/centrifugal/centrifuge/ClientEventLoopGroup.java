@@ -0,0 +1,73 @@
+package io.github.centrifugal.centrifuge;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fixed set of single threaded event loops and one timer shared by many clients, set via
+// ClientOptions.setEventLoopGroup. Every client is pinned to one loop, so its state stays confined to a single
+// thread as with private executors. Callbacks invoked on client's loop must not block other clients on it.
+// Listener threads of the group replace per-client ClientOptions.setListenerThreads, channels of all clients
+// are striped across them.
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ClientEventLoopGroup {
+
+    private final ThreadPoolExecutor[] loops;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService[] listenerExecutorServices;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+
+    public ClientEventLoopGroup(int loops) {
+        this(loops, 0);
+    }
+
+    public ClientEventLoopGroup(int loops, int listenerThreads) {
+        if (loops <= 0)
+            throw new IllegalArgumentException("loops must be positive");
+        if (listenerThreads < 0)
+            throw new IllegalArgumentException("listenerThreads must not be negative");
+        this.loops = new ThreadPoolExecutor[loops];
+        for (int i = 0; i < loops; i++) {
+            this.loops[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    threadFactory("centrifuge-loop-" + i));
+        }
+        this.timer = Executors.newSingleThreadScheduledExecutor(threadFactory("centrifuge-timer"));
+        this.listenerExecutorServices = new ExecutorService[listenerThreads];
+        for (int i = 0; i < listenerThreads; i++)
+            listenerExecutorServices[i] = Executors.newSingleThreadExecutor(threadFactory("centrifuge-listener-" + i));
+    }
+
+    public int getLoopCount() {
+        return loops.length;
+    }
+
+    // Stops loops and timer, clients using this group must be disconnected before.
+    public void shutdown() {
+        timer.shutdown();
+        for (ThreadPoolExecutor loop : loops)
+            loop.shutdown();
+        for (ExecutorService listenerExecutorService : listenerExecutorServices)
+            listenerExecutorService.shutdown();
+    }
+
+    ThreadPoolExecutor nextLoop() {
+        return loops[(nextLoop.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+    }
+
+    ScheduledExecutorService getTimer() {
+        return timer;
+    }
+
+    ExecutorService[] getListenerExecutorServices() {
+        return listenerExecutorServices;
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        return runnable -> new Thread(runnable, name);
+    }
+}
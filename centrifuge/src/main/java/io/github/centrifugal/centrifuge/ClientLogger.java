@@ -1,15 +1,102 @@
 package io.github.centrifugal.centrifuge;
 
+import io.github.centrifugal.centrifuge.logging.ConsoleClientLogger;
+
+// Leveled logging facade of the client. Messages are built only when their level is enabled: pass
+// arguments to "{}" placeholders or a MessageSupplier instead of concatenating strings at call site.
+// Bridges to System.out, java.util.logging and SLF4J live in logging package.
+@SuppressWarnings({"WeakerAccess", "unused"})
 public class ClientLogger {
 
-    private final boolean logsEnabled;
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    public interface MessageSupplier {
+        String get();
+    }
+
+    private final ClientLogger console;
+
+    protected ClientLogger() {
+        this.console = null;
+    }
 
+    // Kept for compatibility, logs to console as before when enabled. Extend ClientLogger or use one of
+    // logging package bridges instead.
+    @Deprecated
     public ClientLogger(boolean logsEnabled) {
-        this.logsEnabled = logsEnabled;
+        this.console = new ConsoleClientLogger(logsEnabled ? Level.DEBUG : Level.OFF);
+    }
+
+    // Implementations override both methods, ClientLogger itself logs only when created with deprecated constructor.
+    public boolean isEnabled(Level level) {
+        return console != null && console.isEnabled(level);
+    }
+
+    protected void log(Level level, String message, Throwable throwable) {
+        if (console != null)
+            console.log(level, message, throwable);
     }
 
     public void d(String message) {
-        if (logsEnabled)
-            System.out.println("------> " + message + " [" + Thread.currentThread().getName() + "]");
+        if (isEnabled(Level.DEBUG))
+            log(Level.DEBUG, message, null);
+    }
+
+    public void d(String format, Object arg) {
+        if (isEnabled(Level.DEBUG))
+            log(Level.DEBUG, format(format, arg, null), null);
+    }
+
+    public void d(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG))
+            log(Level.DEBUG, format(format, arg1, arg2), null);
+    }
+
+    public void d(MessageSupplier supplier) {
+        if (isEnabled(Level.DEBUG))
+            log(Level.DEBUG, supplier.get(), null);
+    }
+
+    public void i(String message) {
+        if (isEnabled(Level.INFO))
+            log(Level.INFO, message, null);
+    }
+
+    public void i(String format, Object arg) {
+        if (isEnabled(Level.INFO))
+            log(Level.INFO, format(format, arg, null), null);
+    }
+
+    public void w(String message, Throwable throwable) {
+        if (isEnabled(Level.WARN))
+            log(Level.WARN, message, throwable);
+    }
+
+    public void w(String format, Object arg, Throwable throwable) {
+        if (isEnabled(Level.WARN))
+            log(Level.WARN, format(format, arg, null), throwable);
+    }
+
+    public void e(String message, Throwable throwable) {
+        if (isEnabled(Level.ERROR))
+            log(Level.ERROR, message, throwable);
+    }
+
+    // Substitutes up to two "{}" placeholders, fixed arity keeps disabled calls free of varargs arrays.
+    static String format(String format, Object arg1, Object arg2) {
+        int first = format.indexOf("{}");
+        if (first < 0)
+            return format;
+        StringBuilder builder = new StringBuilder(format.length() + 32);
+        builder.append(format, 0, first).append(arg1);
+        int second = format.indexOf("{}", first + 2);
+        if (second < 0)
+            return builder.append(format, first + 2, format.length()).toString();
+        return builder.append(format, first + 2, second)
+                .append(arg2)
+                .append(format, second + 2, format.length())
+                .toString();
     }
 }
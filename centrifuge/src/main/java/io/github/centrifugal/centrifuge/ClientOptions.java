@@ -2,19 +2,56 @@ package io.github.centrifugal.centrifuge;
 
 import java.util.Map;
 
+import io.github.centrifugal.centrifuge.backoff.BackoffStrategy;
+import io.github.centrifugal.centrifuge.backoff.FullJitterBackoffStrategy;
+import io.github.centrifugal.centrifuge.metrics.ClientMetrics;
 import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
 
 public class ClientOptions {
 
     private static final int DEFAULT_TIMEOUT = 5000;
     private static final int DEFAULT_PING_INTERVAL = 25000;
+    private static final int DEFAULT_COMMAND_BATCH_MAX_SIZE = 64 * 1024;
+    private static final int DEFAULT_COMMAND_TIMEOUT_TICK = 100;
+    private static final int DEFAULT_COMMAND_TIMEOUT_WHEEL_SIZE = 64;
+    private static final int DEFAULT_BACKOFF_MIN = 100;
+    private static final int DEFAULT_BACKOFF_MAX = 10000;
+    private static final int DEFAULT_BACKOFF_FACTOR = 2;
+    private static final int DEFAULT_REPLY_CACHE_SIZE = 64;
+    private static final int DEFAULT_SUB_REFRESH_TICK = 1000;
+    private static final int DEFAULT_SUB_REFRESH_PREFETCH = 10000;
 
     private int timeout = DEFAULT_TIMEOUT;
     private int pingInterval = DEFAULT_PING_INTERVAL;
     private String privateChannelPrefix = "$";
     private Map<String, String> headers;
     private Interceptor interceptor;
+    private OkHttpClient okHttpClient;
     private boolean logsEnabled = false;
+    private ClientLogger logger;
+    private int commandBatchWindow = 0;
+    private int commandBatchMaxSize = DEFAULT_COMMAND_BATCH_MAX_SIZE;
+    private boolean subscribeOnConnect = false;
+    private int listenerThreads = 0;
+    private boolean virtualThreadListeners = false;
+    private int commandTimeoutTick = DEFAULT_COMMAND_TIMEOUT_TICK;
+    private int commandTimeoutWheelSize = DEFAULT_COMMAND_TIMEOUT_WHEEL_SIZE;
+    private ClientMetrics metrics;
+    private ClientEventLoopGroup eventLoopGroup;
+    private int inboundQueueFrames = 0;
+    private long inboundQueueBytes = 0;
+    private InboundOverloadPolicy inboundOverloadPolicy = InboundOverloadPolicy.BLOCK;
+    private int rpcMaxInFlight = 0;
+    private int historyCacheTtl = 0;
+    private int presenceCacheTtl = 0;
+    private int presenceStatsCacheTtl = 0;
+    private int replyCacheSize = DEFAULT_REPLY_CACHE_SIZE;
+    private int privateSubBatchWindow = 0;
+    private int subRefreshTick = DEFAULT_SUB_REFRESH_TICK;
+    private int subRefreshPrefetch = DEFAULT_SUB_REFRESH_PREFETCH;
+    private BackoffStrategy backoffStrategy =
+            new FullJitterBackoffStrategy(DEFAULT_BACKOFF_MIN, DEFAULT_BACKOFF_MAX, DEFAULT_BACKOFF_FACTOR);
 
     public int getTimeout() {
         return timeout;
@@ -56,11 +93,224 @@ public class ClientOptions {
         this.interceptor = interceptor;
     }
 
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    // Client shared between Client instances, each instance derives its own copy with timeout and
+    // interceptor applied while reusing dispatcher threads and connection pool of the shared one.
+    public void setOkHttpClient(OkHttpClient okHttpClient) {
+        this.okHttpClient = okHttpClient;
+    }
+
     public boolean isLogsEnabled() {
         return logsEnabled;
     }
 
+    // Enables debug output of default console logger, has no effect when logger is set.
     public void setLogsEnabled(boolean logsEnabled) {
         this.logsEnabled = logsEnabled;
     }
+
+    public ClientLogger getLogger() {
+        return logger;
+    }
+
+    // Replaces default console logger, see bridges in logging package.
+    public void setLogger(ClientLogger logger) {
+        this.logger = logger;
+    }
+
+    public int getCommandBatchWindow() {
+        return commandBatchWindow;
+    }
+
+    // Commands issued within this window (in milliseconds) are coalesced into one frame, 0 disables batching.
+    public void setCommandBatchWindow(int commandBatchWindow) {
+        this.commandBatchWindow = commandBatchWindow;
+    }
+
+    public int getCommandBatchMaxSize() {
+        return commandBatchMaxSize;
+    }
+
+    // Batched frame is flushed before the window ends once it reaches this size in bytes.
+    public void setCommandBatchMaxSize(int commandBatchMaxSize) {
+        this.commandBatchMaxSize = commandBatchMaxSize;
+    }
+
+    public boolean isSubscribeOnConnect() {
+        return subscribeOnConnect;
+    }
+
+    // Send non-private subscriptions inside connect command instead of separate subscribe commands.
+    public void setSubscribeOnConnect(boolean subscribeOnConnect) {
+        this.subscribeOnConnect = subscribeOnConnect;
+    }
+
+    public int getListenerThreads() {
+        return listenerThreads;
+    }
+
+    // Number of threads delivering subscription events, channels are striped across them so events of
+    // one channel keep their order. With 0 subscription events are delivered on client's own thread.
+    // Ignored when event loop group is set, listener threads of the group are used instead.
+    public void setListenerThreads(int listenerThreads) {
+        this.listenerThreads = listenerThreads;
+    }
+
+    public boolean isVirtualThreadListeners() {
+        return virtualThreadListeners;
+    }
+
+    // On Java 21+ run listener callbacks (subscription events, private sub token and refresh requests) on
+    // virtual threads, so they may block. Events of one channel keep their order. Ignored on older runtimes.
+    public void setVirtualThreadListeners(boolean virtualThreadListeners) {
+        this.virtualThreadListeners = virtualThreadListeners;
+    }
+
+    public int getCommandTimeoutTick() {
+        return commandTimeoutTick;
+    }
+
+    // Resolution (in milliseconds) of command timeouts.
+    public void setCommandTimeoutTick(int commandTimeoutTick) {
+        this.commandTimeoutTick = commandTimeoutTick;
+    }
+
+    public int getCommandTimeoutWheelSize() {
+        return commandTimeoutWheelSize;
+    }
+
+    // Number of buckets in command timeout wheel, timeouts up to tick * wheel size expire in a single pass.
+    public void setCommandTimeoutWheelSize(int commandTimeoutWheelSize) {
+        this.commandTimeoutWheelSize = commandTimeoutWheelSize;
+    }
+
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Receives reply latencies, traffic, queue depth and reconnect measurements, null (default) disables them.
+    public void setMetrics(ClientMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ClientEventLoopGroup getEventLoopGroup() {
+        return eventLoopGroup;
+    }
+
+    // Runs client on a loop and timer of shared group instead of creating its own threads.
+    public void setEventLoopGroup(ClientEventLoopGroup eventLoopGroup) {
+        this.eventLoopGroup = eventLoopGroup;
+    }
+
+    public BackoffStrategy getBackoffStrategy() {
+        return backoffStrategy;
+    }
+
+    // Reconnect delays, full jitter between 100ms and 10s by default. Strategy may be shared between clients.
+    public void setBackoffStrategy(BackoffStrategy backoffStrategy) {
+        this.backoffStrategy = backoffStrategy;
+    }
+
+    public int getInboundQueueFrames() {
+        return inboundQueueFrames;
+    }
+
+    // Maximum number of received frames waiting to be processed, 0 (default) is unbounded.
+    public void setInboundQueueFrames(int inboundQueueFrames) {
+        this.inboundQueueFrames = inboundQueueFrames;
+    }
+
+    public long getInboundQueueBytes() {
+        return inboundQueueBytes;
+    }
+
+    // Maximum size in bytes of received frames waiting to be processed, 0 (default) is unbounded.
+    public void setInboundQueueBytes(long inboundQueueBytes) {
+        this.inboundQueueBytes = inboundQueueBytes;
+    }
+
+    public InboundOverloadPolicy getInboundOverloadPolicy() {
+        return inboundOverloadPolicy;
+    }
+
+    // Applied to a received frame when inbound queue is full, BLOCK by default.
+    public void setInboundOverloadPolicy(InboundOverloadPolicy inboundOverloadPolicy) {
+        this.inboundOverloadPolicy = inboundOverloadPolicy;
+    }
+
+    public int getRpcMaxInFlight() {
+        return rpcMaxInFlight;
+    }
+
+    // RPC calls waiting for reply at the same time, further calls queue until replies arrive, 0 means no limit.
+    public void setRpcMaxInFlight(int rpcMaxInFlight) {
+        this.rpcMaxInFlight = rpcMaxInFlight;
+    }
+
+    public int getHistoryCacheTtl() {
+        return historyCacheTtl;
+    }
+
+    // History replies are reused for identical requests within this ttl (in milliseconds), 0 disables caching.
+    public void setHistoryCacheTtl(int historyCacheTtl) {
+        this.historyCacheTtl = historyCacheTtl;
+    }
+
+    public int getPresenceCacheTtl() {
+        return presenceCacheTtl;
+    }
+
+    // Presence replies are reused for identical requests within this ttl (in milliseconds), 0 disables caching.
+    public void setPresenceCacheTtl(int presenceCacheTtl) {
+        this.presenceCacheTtl = presenceCacheTtl;
+    }
+
+    public int getPresenceStatsCacheTtl() {
+        return presenceStatsCacheTtl;
+    }
+
+    // Presence stats replies are reused for identical requests within this ttl (in milliseconds), 0 disables caching.
+    public void setPresenceStatsCacheTtl(int presenceStatsCacheTtl) {
+        this.presenceStatsCacheTtl = presenceStatsCacheTtl;
+    }
+
+    public int getReplyCacheSize() {
+        return replyCacheSize;
+    }
+
+    // Cached replies kept per method, least recently used ones are evicted first.
+    public void setReplyCacheSize(int replyCacheSize) {
+        this.replyCacheSize = replyCacheSize;
+    }
+
+    public int getPrivateSubBatchWindow() {
+        return privateSubBatchWindow;
+    }
+
+    // Private channels needing token within this window (in milliseconds) are passed to one
+    // ClientEventListener.onPrivateSubBatch call and subscribed in one frame, 0 disables batching.
+    public void setPrivateSubBatchWindow(int privateSubBatchWindow) {
+        this.privateSubBatchWindow = privateSubBatchWindow;
+    }
+
+    public int getSubRefreshTick() {
+        return subRefreshTick;
+    }
+
+    // Subscription token refreshes due within the same tick (in milliseconds) run together.
+    public void setSubRefreshTick(int subRefreshTick) {
+        this.subRefreshTick = subRefreshTick;
+    }
+
+    public int getSubRefreshPrefetch() {
+        return subRefreshPrefetch;
+    }
+
+    // Subscription token is refreshed this long (in milliseconds) before it expires, at most half of its ttl.
+    public void setSubRefreshPrefetch(int subRefreshPrefetch) {
+        this.subRefreshPrefetch = subRefreshPrefetch;
+    }
 }
@@ -0,0 +1,11 @@
+package io.github.centrifugal.centrifuge;
+
+// What client does with a frame read from socket when its inbound queue is full.
+public enum InboundOverloadPolicy {
+    // Socket reader waits for space, server is slowed down by TCP flow control.
+    BLOCK,
+    // Frame is discarded and reported to ClientMetrics. Replies in it are lost and their commands time out.
+    DROP,
+    // Connection is closed with "inbound queue overflow" reason and client reconnects.
+    DISCONNECT
+}
@@ -0,0 +1,79 @@
+package io.github.centrifugal.centrifuge;
+
+import java.util.ArrayDeque;
+
+import okio.ByteString;
+
+// Frames read from socket waiting for client's main executor, bounded in frames and bytes (0 is unbounded).
+// Reader thread offers frames and schedules a single drain task while queue is not empty, so frames do not
+// need a task each. A frame larger than maxBytes is still accepted into an empty queue.
+final class InboundQueue {
+
+    private final int maxFrames;
+    private final long maxBytes;
+    private final ArrayDeque<ByteString> frames = new ArrayDeque<>();
+    private long bytes;
+    private boolean drainScheduled;
+
+    InboundQueue(int maxFrames, long maxBytes) {
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxBytes;
+    }
+
+    // Returns false when queue is full and block is false, otherwise waits for space.
+    synchronized boolean offer(ByteString frame, boolean block) throws InterruptedException {
+        while (isFull(frame.size())) {
+            if (!block)
+                return false;
+            wait();
+        }
+        frames.addLast(frame);
+        bytes += frame.size();
+        return true;
+    }
+
+    // True when caller has to schedule drain task.
+    synchronized boolean scheduleDrain() {
+        if (drainScheduled)
+            return false;
+        drainScheduled = true;
+        return true;
+    }
+
+    // Null when queue is empty, drain task is finished then and next offer schedules a new one.
+    synchronized ByteString poll() {
+        ByteString frame = frames.pollFirst();
+        if (frame == null) {
+            drainScheduled = false;
+            return null;
+        }
+        bytes -= frame.size();
+        notifyAll();
+        return frame;
+    }
+
+    // Called when drain task is aborted by an error, true when caller has to schedule it again.
+    synchronized boolean retryDrain() {
+        if (frames.isEmpty()) {
+            drainScheduled = false;
+            return false;
+        }
+        return true;
+    }
+
+    synchronized void clear() {
+        frames.clear();
+        bytes = 0;
+        notifyAll();
+    }
+
+    synchronized int size() {
+        return frames.size();
+    }
+
+    private boolean isFull(int frameSize) {
+        if (frames.isEmpty())
+            return false;
+        return (maxFrames > 0 && frames.size() >= maxFrames) || (maxBytes > 0 && bytes + frameSize > maxBytes);
+    }
+}
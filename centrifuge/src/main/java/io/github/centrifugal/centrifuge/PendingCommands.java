@@ -0,0 +1,72 @@
+package io.github.centrifugal.centrifuge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Commands waiting for reply, kept in slots indexed by command id modulo capacity.
+// Not thread safe: accessed only from client's main executor.
+final class PendingCommands {
+
+    private int[] ids;
+    private ReplyCallback[] callbacks;
+    private int mask;
+    private int size;
+
+    PendingCommands(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        ids = new int[slots];
+        callbacks = new ReplyCallback[slots];
+        mask = slots - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void put(int id, ReplyCallback callback) {
+        while (callbacks[id & mask] != null)
+            grow();
+        int slot = id & mask;
+        ids[slot] = id;
+        callbacks[slot] = callback;
+        size++;
+    }
+
+    ReplyCallback remove(int id) {
+        int slot = id & mask;
+        ReplyCallback callback = callbacks[slot];
+        if (callback == null || ids[slot] != id)
+            return null;
+        callbacks[slot] = null;
+        size--;
+        return callback;
+    }
+
+    List<ReplyCallback> removeAll() {
+        List<ReplyCallback> removed = new ArrayList<>(size);
+        for (int slot = 0; slot < callbacks.length; slot++) {
+            if (callbacks[slot] != null) {
+                removed.add(callbacks[slot]);
+                callbacks[slot] = null;
+            }
+        }
+        size = 0;
+        return removed;
+    }
+
+    private void grow() {
+        int[] oldIds = ids;
+        ReplyCallback[] oldCallbacks = callbacks;
+        int slots = oldCallbacks.length << 1;
+        ids = new int[slots];
+        callbacks = new ReplyCallback[slots];
+        mask = slots - 1;
+        for (int i = 0; i < oldCallbacks.length; i++) {
+            if (oldCallbacks[i] == null)
+                continue;
+            int slot = oldIds[i] & mask;
+            ids[slot] = oldIds[i];
+            callbacks[slot] = oldCallbacks[i];
+        }
+    }
+}
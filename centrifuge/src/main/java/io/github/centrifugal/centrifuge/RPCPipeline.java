@@ -0,0 +1,60 @@
+package io.github.centrifugal.centrifuge;
+
+import com.google.protobuf.ByteString;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// RPC calls admitted in FIFO order with at most maxInFlight of them waiting for reply.
+// Not thread safe: accessed only from client's main executor.
+final class RPCPipeline {
+
+    static final class Call {
+
+        final ByteString params;
+        final ReplyCallback callback;
+        final long queuedAt;
+
+        Call(ByteString params, ReplyCallback callback, long queuedAt) {
+            this.params = params;
+            this.callback = callback;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private final int maxInFlight;
+    private final ArrayDeque<Call> queue = new ArrayDeque<>();
+    private int inFlight;
+
+    RPCPipeline(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    void enqueue(Call call) {
+        queue.addLast(call);
+    }
+
+    // Takes a free in-flight slot for the next queued call, null when window is full or nothing is queued.
+    Call poll() {
+        if (inFlight >= maxInFlight || queue.isEmpty())
+            return null;
+        inFlight++;
+        return queue.pollFirst();
+    }
+
+    void release() {
+        inFlight--;
+    }
+
+    // Queued calls are handed back to be failed, in-flight ones release their slots when pending commands fail.
+    List<Call> clear() {
+        List<Call> calls = new ArrayList<>(queue);
+        queue.clear();
+        return calls;
+    }
+}
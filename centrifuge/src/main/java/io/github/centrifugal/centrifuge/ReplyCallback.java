@@ -0,0 +1,10 @@
+package io.github.centrifugal.centrifuge;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+interface ReplyCallback {
+
+    void onReply(Protocol.Reply reply);
+
+    void onFailure(Throwable e);
+}
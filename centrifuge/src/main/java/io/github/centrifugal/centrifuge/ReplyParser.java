@@ -0,0 +1,10 @@
+package io.github.centrifugal.centrifuge;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+interface ReplyParser<T> {
+
+    T parse(Protocol.Reply reply) throws InvalidProtocolBufferException;
+}
@@ -0,0 +1,92 @@
+package io.github.centrifugal.centrifuge;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+// Identical read requests (same encoded params) of one method share a single in-flight command, successful
+// replies are optionally kept for ttl in an LRU cache of bounded size.
+// Not thread safe: accessed only from client's main executor.
+final class RequestCoalescer {
+
+    private static final class CachedReply {
+
+        final Protocol.Reply reply;
+        final long expiresAt;
+
+        CachedReply(Protocol.Reply reply, long expiresAt) {
+            this.reply = reply;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<ByteString, List<ReplyCallback>> inFlight = new HashMap<>();
+    private final Map<ByteString, CachedReply> cache;
+    private final long ttlNanos;
+
+    RequestCoalescer(long ttl, TimeUnit unit, int maxCacheSize) {
+        this.ttlNanos = unit.toNanos(ttl);
+        this.cache = ttlNanos > 0 && maxCacheSize > 0 ? new LinkedHashMap<ByteString, CachedReply>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteString, CachedReply> eldest) {
+                return size() > maxCacheSize;
+            }
+        } : null;
+    }
+
+    Protocol.Reply getCached(ByteString params, long now) {
+        if (cache == null)
+            return null;
+        CachedReply cached = cache.get(params);
+        if (cached == null)
+            return null;
+        if (now - cached.expiresAt >= 0) {
+            cache.remove(params);
+            return null;
+        }
+        return cached.reply;
+    }
+
+    // Returns true when callback is the first one for params and caller has to send the command.
+    boolean add(ByteString params, ReplyCallback callback) {
+        List<ReplyCallback> callbacks = inFlight.get(params);
+        if (callbacks != null) {
+            callbacks.add(callback);
+            return false;
+        }
+        callbacks = new ArrayList<>(1);
+        callbacks.add(callback);
+        inFlight.put(params, callbacks);
+        return true;
+    }
+
+    // Reply result is copied out of the received frame before caching so cache does not pin whole frames.
+    List<ReplyCallback> complete(ByteString params, Protocol.Reply reply, boolean error, long now) {
+        if (cache != null && !error) {
+            Protocol.Reply copy = Protocol.Reply.newBuilder()
+                    .setResult(UnsafeByteOperations.unsafeWrap(reply.getResult().toByteArray()))
+                    .build();
+            cache.put(params, new CachedReply(copy, now + ttlNanos));
+        }
+        return remove(params);
+    }
+
+    List<ReplyCallback> remove(ByteString params) {
+        List<ReplyCallback> callbacks = inFlight.remove(params);
+        return callbacks != null ? callbacks : Collections.<ReplyCallback>emptyList();
+    }
+
+    void clearCache() {
+        if (cache != null)
+            cache.clear();
+    }
+}
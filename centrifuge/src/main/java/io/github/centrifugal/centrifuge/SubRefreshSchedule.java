@@ -0,0 +1,80 @@
+package io.github.centrifugal.centrifuge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Channels waiting for subscription token refresh, grouped by timer tick: refresh deadlines are rounded down
+// to a tick so channels expiring at about the same time are refreshed together by one timer run.
+// Not thread safe: accessed only from client's main executor.
+final class SubRefreshSchedule {
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final TreeMap<Long, Set<String>> ticks = new TreeMap<>();
+    private final Map<String, Long> channelTicks = new HashMap<>();
+
+    SubRefreshSchedule(long tick, TimeUnit unit, long now) {
+        this.tickNanos = Math.max(1, unit.toNanos(tick));
+        this.startNanos = now;
+    }
+
+    void add(String channel, long deadline) {
+        remove(channel);
+        long tick = Math.max(0, deadline - startNanos) / tickNanos;
+        Set<String> channels = ticks.get(tick);
+        if (channels == null) {
+            channels = new LinkedHashSet<>();
+            ticks.put(tick, channels);
+        }
+        channels.add(channel);
+        channelTicks.put(channel, tick);
+    }
+
+    void remove(String channel) {
+        Long tick = channelTicks.remove(channel);
+        if (tick == null)
+            return;
+        Set<String> channels = ticks.get(tick);
+        channels.remove(channel);
+        if (channels.isEmpty())
+            ticks.remove(tick);
+    }
+
+    boolean isEmpty() {
+        return ticks.isEmpty();
+    }
+
+    // Start of the earliest tick, only valid when schedule is not empty.
+    long nextDeadline() {
+        return startNanos + ticks.firstKey() * tickNanos;
+    }
+
+    // Channels of all ticks started by now, earliest tick first.
+    List<String> poll(long now) {
+        List<String> due = new ArrayList<>();
+        Iterator<Map.Entry<Long, Set<String>>> iterator = ticks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Set<String>> entry = iterator.next();
+            if (startNanos + entry.getKey() * tickNanos - now > 0)
+                break;
+            for (String channel : entry.getValue()) {
+                channelTicks.remove(channel);
+                due.add(channel);
+            }
+            iterator.remove();
+        }
+        return due;
+    }
+
+    void clear() {
+        ticks.clear();
+        channelTicks.clear();
+    }
+}
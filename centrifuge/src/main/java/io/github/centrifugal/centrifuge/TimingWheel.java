@@ -0,0 +1,81 @@
+package io.github.centrifugal.centrifuge;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Hashed timing wheel of command ids. Each id is placed into the bucket of the tick its deadline falls on,
+// advance visits only buckets of ticks passed since previous call. Entries of completed commands are not
+// removed from wheel, they are skipped by expiration handler when their bucket comes.
+// Not thread safe: accessed only from client's main executor.
+final class TimingWheel {
+
+    interface ExpirationHandler {
+
+        void onExpired(int id);
+    }
+
+    private static final int INITIAL_BUCKET_CAPACITY = 8;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final int[][] ids;
+    private final long[][] deadlines;
+    private final int[] counts;
+    private long currentTick;
+
+    TimingWheel(long tick, TimeUnit unit, int wheelSize, long now) {
+        this.tickNanos = Math.max(1, unit.toNanos(tick));
+        this.startNanos = now;
+        this.ids = new int[wheelSize][];
+        this.deadlines = new long[wheelSize][];
+        this.counts = new int[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            ids[i] = new int[INITIAL_BUCKET_CAPACITY];
+            deadlines[i] = new long[INITIAL_BUCKET_CAPACITY];
+        }
+    }
+
+    void add(int id, long deadline) {
+        long tick = Math.max(currentTick, (deadline - startNanos + tickNanos - 1) / tickNanos);
+        int bucket = (int) (tick % counts.length);
+        int count = counts[bucket];
+        if (count == ids[bucket].length) {
+            ids[bucket] = Arrays.copyOf(ids[bucket], count << 1);
+            deadlines[bucket] = Arrays.copyOf(deadlines[bucket], count << 1);
+        }
+        ids[bucket][count] = id;
+        deadlines[bucket][count] = deadline;
+        counts[bucket] = count + 1;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    void advance(long now, ExpirationHandler expirationHandler) {
+        long targetTick = (now - startNanos) / tickNanos;
+        // Every bucket is visited at most once per call even if more than a whole revolution has passed.
+        long firstTick = Math.max(currentTick, targetTick - counts.length + 1);
+        for (long tick = firstTick; tick <= targetTick; tick++)
+            expireBucket((int) (tick % counts.length), now, expirationHandler);
+        if (targetTick >= currentTick)
+            currentTick = targetTick + 1;
+    }
+
+    private void expireBucket(int bucket, long now, ExpirationHandler expirationHandler) {
+        int[] bucketIds = ids[bucket];
+        long[] bucketDeadlines = deadlines[bucket];
+        int count = counts[bucket];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (bucketDeadlines[i] - now <= 0) {
+                expirationHandler.onExpired(bucketIds[i]);
+            } else {
+                bucketIds[kept] = bucketIds[i];
+                bucketDeadlines[kept] = bucketDeadlines[i];
+                kept++;
+            }
+        }
+        counts[bucket] = kept;
+    }
+}
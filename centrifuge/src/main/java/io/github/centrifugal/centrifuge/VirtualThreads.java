@@ -0,0 +1,27 @@
+package io.github.centrifugal.centrifuge;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Virtual thread per task executor looked up reflectively, so library keeps Java 8 bytecode and
+// runs on older JVMs and Android where it is simply unavailable.
+final class VirtualThreads {
+
+    private static final ExecutorService EXECUTOR = lookupExecutor();
+
+    private VirtualThreads() {
+    }
+
+    // Shared executor starting a virtual thread per task, null before Java 21.
+    static ExecutorService executorOrNull() {
+        return EXECUTOR;
+    }
+
+    private static ExecutorService lookupExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -1,35 +1,55 @@
 package io.github.centrifugal.centrifuge.backoff;
 
-import java.math.BigInteger;
-
+// Reconnect attempt state of a single client, delays come from BackoffStrategy.
 public class Backoff {
 
-    private long min = 100;
-    private long max = 10000;
-    private int factor = 2;
+    private static final long DEFAULT_MIN = 100;
+    private static final long DEFAULT_MAX = 10000;
+    private static final int DEFAULT_FACTOR = 2;
+
+    private BackoffStrategy strategy;
+    private long min = DEFAULT_MIN;
+    private long max = DEFAULT_MAX;
+    private int factor = DEFAULT_FACTOR;
     private int attempts = 0;
+    private long previous = 0;
 
     public Backoff() {
+        this(new FullJitterBackoffStrategy(DEFAULT_MIN, DEFAULT_MAX, DEFAULT_FACTOR));
+    }
+
+    public Backoff(BackoffStrategy strategy) {
+        this.strategy = strategy;
     }
 
+    // Kept for compatibility, switches to ExponentialBackoffStrategy as before. Use BackoffStrategy instead.
+    @Deprecated
     public void setMin(long min) {
         this.min = min;
+        strategy = new ExponentialBackoffStrategy(min, max, factor);
     }
 
+    @Deprecated
     public void setMax(long max) {
         this.max = max;
+        strategy = new ExponentialBackoffStrategy(min, max, factor);
     }
 
+    @Deprecated
     public void setFactor(int factor) {
         this.factor = factor;
+        strategy = new ExponentialBackoffStrategy(min, max, factor);
     }
 
     public void reset() {
         attempts = 0;
+        previous = 0;
     }
 
     public long duration() {
-        BigInteger ms = BigInteger.valueOf(min).multiply(BigInteger.valueOf(factor).pow(attempts++));
-        return ms.min(BigInteger.valueOf(max)).longValue();
+        previous = strategy.delay(attempts, previous);
+        if (attempts < Integer.MAX_VALUE)
+            attempts++;
+        return previous;
     }
 }
@@ -0,0 +1,9 @@
+package io.github.centrifugal.centrifuge.backoff;
+
+// Computes reconnect delays. Implementations are stateless apart from their random source, so one
+// strategy set in ClientOptions can be shared by many clients, per-client attempt state lives in Backoff.
+public interface BackoffStrategy {
+
+    // Delay in milliseconds before attempt (0 for the first one), previousDelay is 0 before the first attempt.
+    long delay(int attempt, long previousDelay);
+}
@@ -0,0 +1,25 @@
+package io.github.centrifugal.centrifuge.backoff;
+
+import java.util.Random;
+
+// Random delay between min and three times previous delay, capped at max.
+public class DecorrelatedJitterBackoffStrategy implements BackoffStrategy {
+
+    private final Random random = new Random();
+    private final long min;
+    private final long max;
+
+    public DecorrelatedJitterBackoffStrategy(long min, long max) {
+        if (min <= 0 || max < min)
+            throw new IllegalArgumentException("invalid backoff: min " + min + ", max " + max);
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelay) {
+        long previous = Math.max(previousDelay, min);
+        long upper = previous > max / 3 ? max : Math.min(max, previous * 3);
+        return Jitter.between(random, min, upper);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.centrifugal.centrifuge.backoff;
+
+import java.util.Random;
+
+// Half of exponential delay plus random value up to the other half, keeps a growing lower bound.
+public class EqualJitterBackoffStrategy extends ExponentialBackoffStrategy {
+
+    private final Random random = new Random();
+
+    public EqualJitterBackoffStrategy(long min, long max, int factor) {
+        super(min, max, factor);
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelay) {
+        long exponential = exponential(attempt);
+        long half = exponential / 2;
+        return Math.max(min, Jitter.between(random, half, exponential));
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.centrifugal.centrifuge.backoff;
+
+// min * factor ^ attempt capped at max, without jitter.
+public class ExponentialBackoffStrategy implements BackoffStrategy {
+
+    protected final long min;
+    protected final long max;
+    protected final int factor;
+
+    public ExponentialBackoffStrategy(long min, long max, int factor) {
+        if (min <= 0 || max < min || factor < 1)
+            throw new IllegalArgumentException("invalid backoff: min " + min + ", max " + max + ", factor " + factor);
+        this.min = min;
+        this.max = max;
+        this.factor = factor;
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelay) {
+        return exponential(attempt);
+    }
+
+    // Multiplies until max is reached, so it never overflows and does at most log(max / min) steps.
+    protected long exponential(int attempt) {
+        long delay = min;
+        for (int i = 0; i < attempt && delay < max; i++) {
+            if (delay > max / factor)
+                return max;
+            delay *= factor;
+        }
+        return Math.min(delay, max);
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.centrifugal.centrifuge.backoff;
+
+import java.util.Random;
+
+// Random delay between min and exponential delay of the attempt.
+public class FullJitterBackoffStrategy extends ExponentialBackoffStrategy {
+
+    private final Random random = new Random();
+
+    public FullJitterBackoffStrategy(long min, long max, int factor) {
+        super(min, max, factor);
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelay) {
+        return Jitter.between(random, min, exponential(attempt));
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.centrifugal.centrifuge.backoff;
+
+import java.util.Random;
+
+final class Jitter {
+
+    private Jitter() {
+    }
+
+    // Uniform value in [from, to].
+    static long between(Random random, long from, long to) {
+        if (to <= from)
+            return from;
+        return from + (long) (random.nextDouble() * (to - from + 1));
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.centrifugal.centrifuge.codec;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import okio.Buffer;
+
+// Encodes outbound commands copying payload once: request payload is wrapped, not copied, and appended to
+// encoded request fields as a rope, then the delimited command is written into pooled okio segments
+// which the resulting frame shares.
+public final class CommandEncoder {
+
+    private static final int SMALL_MESSAGE_SIZE = 8192;
+
+    private CommandEncoder() {
+    }
+
+    // Payload of publish, rpc and send requests is either data or remaining bytes of buffer. It is wrapped instead
+    // of copied and copied once when command is encoded into outgoing frame, so buffer must stay unchanged until
+    // command is written.
+    public static ByteString appendPayload(ByteString message, int fieldNumber, byte[] data, ByteBuffer buffer) {
+        ByteString payload = data != null ? UnsafeByteOperations.unsafeWrap(data) : UnsafeByteOperations.unsafeWrap(buffer.duplicate());
+        return appendBytesField(message, fieldNumber, payload);
+    }
+
+    public static byte[] payloadBytes(byte[] data, ByteBuffer buffer) {
+        if (data != null)
+            return data;
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    // Payload field goes last on the wire, protobuf parsers accept fields in any order.
+    public static ByteString appendBytesField(ByteString message, int fieldNumber, ByteString payload) {
+        byte[] header = new byte[CodedOutputStream.computeTagSize(fieldNumber) + CodedOutputStream.computeUInt32SizeNoTag(payload.size())];
+        CodedOutputStream output = CodedOutputStream.newInstance(header);
+        try {
+            output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(payload.size());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return message.concat(UnsafeByteOperations.unsafeWrap(header)).concat(payload);
+    }
+
+    // Messages below one okio segment are cheaper to encode into an exact size array and copy once more.
+    public static okio.ByteString encodeDelimited(MessageLite message) {
+        int size = message.getSerializedSize();
+        int delimitedSize = CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+        if (delimitedSize < SMALL_MESSAGE_SIZE) {
+            byte[] bytes = new byte[delimitedSize];
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+            try {
+                output.writeUInt32NoTag(size);
+                message.writeTo(output);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return okio.ByteString.of(bytes);
+        }
+        Buffer buffer = new Buffer();
+        try {
+            message.writeDelimitedTo(buffer.outputStream());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return buffer.snapshot();
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.centrifugal.centrifuge.codec;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.io.IOException;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+// Decodes inbound frames with protobuf aliasing enabled: the frame is copied out of okio once,
+// and every nested bytes field (Reply.result, Push.data, Publication.data) is a view over that copy.
+public final class ReplyDecoder {
+
+    private ReplyDecoder() {
+    }
+
+    public interface ReplyHandler {
+
+        void onReply(Protocol.Reply reply);
+    }
+
+    public static void decode(okio.ByteString frame, ReplyHandler replyHandler) throws IOException {
+        CodedInputStream input = newAliasingInput(UnsafeByteOperations.unsafeWrap(frame.toByteArray()));
+        ExtensionRegistryLite extensionRegistry = ExtensionRegistryLite.getEmptyRegistry();
+        while (!input.isAtEnd()) {
+            replyHandler.onReply(input.readMessage(Protocol.Reply.parser(), extensionRegistry));
+        }
+    }
+
+    public static <T extends MessageLite> T parse(Parser<T> parser, ByteString bytes) throws InvalidProtocolBufferException {
+        return parser.parseFrom(newAliasingInput(bytes));
+    }
+
+    private static CodedInputStream newAliasingInput(ByteString bytes) {
+        CodedInputStream input = bytes.newCodedInput();
+        input.enableAliasing(true);
+        return input;
+    }
+}
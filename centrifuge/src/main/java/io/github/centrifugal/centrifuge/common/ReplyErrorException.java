@@ -0,0 +1,18 @@
+package io.github.centrifugal.centrifuge.common;
+
+// Completes futures returned by Client when server replies with error.
+public class ReplyErrorException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Error error;
+
+    public ReplyErrorException(Error error) {
+        super(error.getCode() + ": " + error.getMessage());
+        this.error = error;
+    }
+
+    public Error getError() {
+        return error;
+    }
+}
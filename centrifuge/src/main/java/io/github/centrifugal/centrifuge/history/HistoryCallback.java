@@ -5,6 +5,7 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.github.centrifugal.centrifuge.codec.ReplyDecoder;
 import io.github.centrifugal.centrifuge.common.Error;
 import io.github.centrifugal.centrifuge.common.Publication;
 import io.github.centrifugal.centrifuge.protobuf.Protocol;
@@ -33,7 +34,7 @@ public interface HistoryCallback {
         }
 
         public static HistoryResult fromReply(Protocol.Reply reply) throws InvalidProtocolBufferException {
-            return new HistoryResult(Protocol.HistoryResult.parseFrom(reply.getResult()));
+            return new HistoryResult(ReplyDecoder.parse(Protocol.HistoryResult.parser(), reply.getResult()));
         }
     }
 }
@@ -0,0 +1,29 @@
+package io.github.centrifugal.centrifuge.logging;
+
+import java.io.PrintStream;
+
+import io.github.centrifugal.centrifuge.ClientLogger;
+
+// Default logger when none is set in ClientOptions: debug and info go to System.out, warnings and errors
+// to System.err.
+public class ConsoleClientLogger extends ClientLogger {
+
+    private final Level level;
+
+    public ConsoleClientLogger(Level level) {
+        this.level = level;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.compareTo(this.level) >= 0 && level != Level.OFF;
+    }
+
+    @Override
+    protected void log(Level level, String message, Throwable throwable) {
+        PrintStream stream = level.compareTo(Level.WARN) >= 0 ? System.err : System.out;
+        stream.println("------> " + message + " [" + Thread.currentThread().getName() + "]");
+        if (throwable != null)
+            throwable.printStackTrace(stream);
+    }
+}
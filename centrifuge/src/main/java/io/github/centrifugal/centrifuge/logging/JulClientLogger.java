@@ -0,0 +1,39 @@
+package io.github.centrifugal.centrifuge.logging;
+
+import java.util.logging.Logger;
+
+import io.github.centrifugal.centrifuge.ClientLogger;
+
+public class JulClientLogger extends ClientLogger {
+
+    private final Logger logger;
+
+    public JulClientLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level != Level.OFF && logger.isLoggable(toJulLevel(level));
+    }
+
+    @Override
+    protected void log(Level level, String message, Throwable throwable) {
+        logger.log(toJulLevel(level), message, throwable);
+    }
+
+    private static java.util.logging.Level toJulLevel(Level level) {
+        switch (level) {
+            case DEBUG:
+                return java.util.logging.Level.FINE;
+            case INFO:
+                return java.util.logging.Level.INFO;
+            case WARN:
+                return java.util.logging.Level.WARNING;
+            case ERROR:
+                return java.util.logging.Level.SEVERE;
+            default:
+                return java.util.logging.Level.OFF;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.centrifugal.centrifuge.logging;
+
+import org.slf4j.Logger;
+
+import io.github.centrifugal.centrifuge.ClientLogger;
+
+// SLF4J is a compile only dependency, application using this bridge provides slf4j-api itself.
+public class Slf4jClientLogger extends ClientLogger {
+
+    private final Logger logger;
+
+    public Slf4jClientLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        switch (level) {
+            case DEBUG:
+                return logger.isDebugEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case ERROR:
+                return logger.isErrorEnabled();
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected void log(Level level, String message, Throwable throwable) {
+        switch (level) {
+            case DEBUG:
+                logger.debug(message, throwable);
+                break;
+            case INFO:
+                logger.info(message, throwable);
+                break;
+            case WARN:
+                logger.warn(message, throwable);
+                break;
+            case ERROR:
+                logger.error(message, throwable);
+                break;
+        }
+    }
+}
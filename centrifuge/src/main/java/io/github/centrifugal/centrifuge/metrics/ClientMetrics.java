@@ -0,0 +1,54 @@
+package io.github.centrifugal.centrifuge.metrics;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+// Receives client measurements, set via ClientOptions.setMetrics. Methods are called on client's main
+// thread and must not block. Client skips all measuring when no metrics are set.
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class ClientMetrics {
+
+    public void onCommandSent(Protocol.MethodType method, int pendingCommands) {
+
+    }
+
+    // pendingCommands is the number of commands still waiting for reply after this one completed.
+    public void onReply(Protocol.MethodType method, long latencyNanos, boolean error, int pendingCommands) {
+
+    }
+
+    public void onCommandFailed(Protocol.MethodType method, long latencyNanos, Throwable e, int pendingCommands) {
+
+    }
+
+    // Called when RPC call leaves in-flight window queue, only with ClientOptions.setRpcMaxInFlight set.
+    // Service time of admitted call is reported by onReply for RPC method.
+    public void onRpcAdmitted(long queueTimeNanos, int queuedCalls) {
+
+    }
+
+    public void onFrameSent(int bytes) {
+
+    }
+
+    // queueDepth is the number of received frames still waiting in inbound queue when frame is processed.
+    public void onFrameReceived(int bytes, int queueDepth) {
+
+    }
+
+    // Called on socket reader thread for a frame rejected by full inbound queue.
+    public void onFrameDropped(int bytes) {
+
+    }
+
+    public void onPush(Protocol.PushType type) {
+
+    }
+
+    public void onReconnectScheduled(long backoffMillis) {
+
+    }
+
+    public void onDisconnect(String reason, boolean reconnect) {
+
+    }
+}
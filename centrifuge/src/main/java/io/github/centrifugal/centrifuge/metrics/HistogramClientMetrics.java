@@ -0,0 +1,168 @@
+package io.github.centrifugal.centrifuge.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+// Default ClientMetrics keeping counters and latency histograms in memory, safe to read from any thread.
+public class HistogramClientMetrics extends ClientMetrics {
+
+    private static final Protocol.MethodType[] METHODS = Protocol.MethodType.values();
+    private static final Protocol.PushType[] PUSH_TYPES = Protocol.PushType.values();
+
+    private final LatencyHistogram[] replyLatencies = new LatencyHistogram[METHODS.length];
+    private final AtomicLongArray commandsSent = new AtomicLongArray(METHODS.length);
+    private final AtomicLongArray replyErrors = new AtomicLongArray(METHODS.length);
+    private final AtomicLongArray commandsFailed = new AtomicLongArray(METHODS.length);
+    private final AtomicLongArray pushes = new AtomicLongArray(PUSH_TYPES.length);
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private final LatencyHistogram backoffDurations = new LatencyHistogram();
+    private final LatencyHistogram queueDepths = new LatencyHistogram();
+    private final LatencyHistogram rpcQueueTimes = new LatencyHistogram();
+    private volatile int pendingCommands;
+    private volatile int queuedRpcCalls;
+
+    public HistogramClientMetrics() {
+        for (int i = 0; i < replyLatencies.length; i++)
+            replyLatencies[i] = new LatencyHistogram();
+    }
+
+    @Override
+    public void onCommandSent(Protocol.MethodType method, int pendingCommands) {
+        commandsSent.incrementAndGet(method.ordinal());
+        this.pendingCommands = pendingCommands;
+    }
+
+    @Override
+    public void onReply(Protocol.MethodType method, long latencyNanos, boolean error, int pendingCommands) {
+        replyLatencies[method.ordinal()].record(latencyNanos);
+        if (error)
+            replyErrors.incrementAndGet(method.ordinal());
+        this.pendingCommands = pendingCommands;
+    }
+
+    @Override
+    public void onCommandFailed(Protocol.MethodType method, long latencyNanos, Throwable e, int pendingCommands) {
+        commandsFailed.incrementAndGet(method.ordinal());
+        this.pendingCommands = pendingCommands;
+    }
+
+    @Override
+    public void onRpcAdmitted(long queueTimeNanos, int queuedCalls) {
+        rpcQueueTimes.record(queueTimeNanos);
+        this.queuedRpcCalls = queuedCalls;
+    }
+
+    @Override
+    public void onFrameSent(int bytes) {
+        framesSent.incrementAndGet();
+        bytesSent.addAndGet(bytes);
+    }
+
+    @Override
+    public void onFrameReceived(int bytes, int queueDepth) {
+        framesReceived.incrementAndGet();
+        bytesReceived.addAndGet(bytes);
+        queueDepths.record(queueDepth);
+    }
+
+    @Override
+    public void onFrameDropped(int bytes) {
+        framesDropped.incrementAndGet();
+    }
+
+    @Override
+    public void onPush(Protocol.PushType type) {
+        pushes.incrementAndGet(type.ordinal());
+    }
+
+    @Override
+    public void onReconnectScheduled(long backoffMillis) {
+        reconnects.incrementAndGet();
+        backoffDurations.record(backoffMillis);
+    }
+
+    @Override
+    public void onDisconnect(String reason, boolean reconnect) {
+        disconnects.incrementAndGet();
+    }
+
+    // Reply latency in nanoseconds, measured from writing command to processing its reply.
+    public LatencyHistogram getReplyLatency(Protocol.MethodType method) {
+        return replyLatencies[method.ordinal()];
+    }
+
+    public long getCommandsSent(Protocol.MethodType method) {
+        return commandsSent.get(method.ordinal());
+    }
+
+    public long getReplyErrors(Protocol.MethodType method) {
+        return replyErrors.get(method.ordinal());
+    }
+
+    // Commands failed without reply: timed out, not written or lost on disconnect.
+    public long getCommandsFailed(Protocol.MethodType method) {
+        return commandsFailed.get(method.ordinal());
+    }
+
+    public long getPushes(Protocol.PushType type) {
+        return pushes.get(type.ordinal());
+    }
+
+    public long getFramesSent() {
+        return framesSent.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getFramesReceived() {
+        return framesReceived.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    public long getDisconnects() {
+        return disconnects.get();
+    }
+
+    // Backoff durations in milliseconds.
+    public LatencyHistogram getBackoffDurations() {
+        return backoffDurations;
+    }
+
+    public LatencyHistogram getQueueDepths() {
+        return queueDepths;
+    }
+
+    public int getPendingCommands() {
+        return pendingCommands;
+    }
+
+    // Time in nanoseconds RPC calls waited for in-flight window, service time is getReplyLatency(RPC).
+    public LatencyHistogram getRpcQueueTime() {
+        return rpcQueueTimes;
+    }
+
+    public int getQueuedRpcCalls() {
+        return queuedRpcCalls;
+    }
+}
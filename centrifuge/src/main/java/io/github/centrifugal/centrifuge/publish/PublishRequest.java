@@ -2,31 +2,40 @@ package io.github.centrifugal.centrifuge.publish;
 
 import com.google.protobuf.ByteString;
 
+import java.nio.ByteBuffer;
+
+import io.github.centrifugal.centrifuge.codec.CommandEncoder;
 import io.github.centrifugal.centrifuge.protobuf.Protocol;
 
 public class PublishRequest {
 
     private String channel;
     private byte[] data;
+    private ByteBuffer buffer;
 
     public PublishRequest(String channel, byte[] data) {
         this.channel = channel;
         this.data = data;
     }
 
+    public PublishRequest(String channel, ByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
     public String getChannel() {
         return channel;
     }
 
     public byte[] getData() {
-        return data;
+        return CommandEncoder.payloadBytes(data, buffer);
     }
 
     public ByteString toByteString() {
-        return Protocol.PublishRequest.newBuilder()
+        ByteString fields = Protocol.PublishRequest.newBuilder()
                 .setChannel(getChannel())
-                .setData(ByteString.copyFrom(getData()))
                 .build()
                 .toByteString();
+        return CommandEncoder.appendPayload(fields, Protocol.PublishRequest.DATA_FIELD_NUMBER, data, buffer);
     }
 }
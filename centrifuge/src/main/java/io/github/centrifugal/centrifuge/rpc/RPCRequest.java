@@ -2,24 +2,29 @@ package io.github.centrifugal.centrifuge.rpc;
 
 import com.google.protobuf.ByteString;
 
+import java.nio.ByteBuffer;
+
+import io.github.centrifugal.centrifuge.codec.CommandEncoder;
 import io.github.centrifugal.centrifuge.protobuf.Protocol;
 
 public class RPCRequest {
 
     private byte[] data;
+    private ByteBuffer buffer;
 
     public RPCRequest(byte[] data) {
         this.data = data;
     }
 
+    public RPCRequest(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
     public byte[] getData() {
-        return data;
+        return CommandEncoder.payloadBytes(data, buffer);
     }
 
     public ByteString toByteString() {
-        return Protocol.RPCRequest.newBuilder()
-                .setData(ByteString.copyFrom(getData()))
-                .build()
-                .toByteString();
+        return CommandEncoder.appendPayload(ByteString.EMPTY, Protocol.RPCRequest.DATA_FIELD_NUMBER, data, buffer);
     }
 }
@@ -2,24 +2,29 @@ package io.github.centrifugal.centrifuge.send;
 
 import com.google.protobuf.ByteString;
 
+import java.nio.ByteBuffer;
+
+import io.github.centrifugal.centrifuge.codec.CommandEncoder;
 import io.github.centrifugal.centrifuge.protobuf.Protocol;
 
 public class SendRequest {
 
     private byte[] data;
+    private ByteBuffer buffer;
 
     public SendRequest(byte[] data) {
         this.data = data;
     }
 
+    public SendRequest(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
     public byte[] getData() {
-        return data;
+        return CommandEncoder.payloadBytes(data, buffer);
     }
 
     public ByteString toByteString() {
-        return Protocol.SendRequest.newBuilder()
-                .setData(ByteString.copyFrom(getData()))
-                .build()
-                .toByteString();
+        return CommandEncoder.appendPayload(ByteString.EMPTY, Protocol.SendRequest.DATA_FIELD_NUMBER, data, buffer);
     }
 }
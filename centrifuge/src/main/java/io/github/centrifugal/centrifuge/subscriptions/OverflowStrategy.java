@@ -0,0 +1,12 @@
+package io.github.centrifugal.centrifuge.subscriptions;
+
+// What a publications publisher does with a new publication when its buffer is full.
+public enum OverflowStrategy {
+    // Oldest buffered publication is discarded.
+    DROP_OLDEST,
+    // New publication is discarded.
+    DROP_NEWEST,
+    // Channel is unsubscribed on server keeping stream position, once subscriber drains the buffer channel is
+    // subscribed again and missed publications are recovered from history. Nothing is lost while history holds them.
+    RESUBSCRIBE
+}
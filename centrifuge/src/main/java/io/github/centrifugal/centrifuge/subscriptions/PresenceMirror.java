@@ -0,0 +1,81 @@
+package io.github.centrifugal.centrifuge.subscriptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.github.centrifugal.centrifuge.common.ClientInfo;
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+// Channel presence kept locally: seeded by presence request after every subscribe and then updated from
+// join/leave pushes, so channel must have join/leave messages enabled. Updated on client's main thread,
+// reads are served from memory and safe from any thread.
+public final class PresenceMirror {
+
+    private final Map<String, ClientInfo> clients = new HashMap<>();
+    private final Map<String, Integer> userClients = new HashMap<>();
+    private boolean synced;
+
+    PresenceMirror() {
+    }
+
+    // False until presence reply arrives after subscribe and again once subscription is lost.
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    public synchronized int getNumClients() {
+        return clients.size();
+    }
+
+    public synchronized int getNumUsers() {
+        return userClients.size();
+    }
+
+    public synchronized ClientInfo getClientInfo(String client) {
+        return clients.get(client);
+    }
+
+    public synchronized Map<String, ClientInfo> getPresence() {
+        return new HashMap<>(clients);
+    }
+
+    synchronized void reset() {
+        clients.clear();
+        userClients.clear();
+        synced = false;
+    }
+
+    // Joins and leaves received before presence reply are already part of it and are ignored while not synced.
+    synchronized void sync(Protocol.PresenceResult presenceResult) {
+        reset();
+        for (Protocol.ClientInfo info : presenceResult.getPresenceMap().values())
+            add(info);
+        synced = true;
+    }
+
+    synchronized void onJoin(Protocol.ClientInfo info) {
+        if (synced)
+            add(info);
+    }
+
+    synchronized void onLeave(Protocol.ClientInfo info) {
+        if (!synced)
+            return;
+        ClientInfo removed = clients.remove(info.getClient());
+        if (removed == null)
+            return;
+        Integer count = userClients.get(removed.getUser());
+        if (count == null || count <= 1) {
+            userClients.remove(removed.getUser());
+        } else {
+            userClients.put(removed.getUser(), count - 1);
+        }
+    }
+
+    private void add(Protocol.ClientInfo info) {
+        if (clients.put(info.getClient(), ClientInfo.fromProto(info)) != null)
+            return;
+        Integer count = userClients.get(info.getUser());
+        userClients.put(info.getUser(), count == null ? 1 : count + 1);
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.centrifugal.centrifuge.subscriptions;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reactive Streams publisher of channel publications with bounded buffer, created by Subscription.publications.
+// Publications are offered on client's thread and delivered by a drain loop on subscription's listener executor
+// only as far as subscriber requested. Supports a single subscriber.
+final class PublicationPublisher implements Publisher<SubscriptionEventListener.PublicationEvent> {
+
+    private final Subscription subscription;
+    private final Executor listenerExecutor;
+    private final int bufferSize;
+    private final OverflowStrategy overflowStrategy;
+    private final ArrayDeque<SubscriptionEventListener.PublicationEvent> buffer = new ArrayDeque<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Runnable drain = this::drain;
+
+    private volatile Subscriber<? super SubscriptionEventListener.PublicationEvent> subscriber;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private Throwable error;
+
+    PublicationPublisher(Subscription subscription, Executor listenerExecutor, int bufferSize, OverflowStrategy overflowStrategy) {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("bufferSize must be positive");
+        this.subscription = subscription;
+        this.listenerExecutor = listenerExecutor;
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super SubscriptionEventListener.PublicationEvent> subscriber) {
+        if (subscriber == null)
+            throw new NullPointerException("subscriber");
+        boolean accepted = false;
+        synchronized (this) {
+            if (this.subscriber == null) {
+                accepted = true;
+                this.subscriber = subscriber;
+                subscriber.onSubscribe(new org.reactivestreams.Subscription() {
+                    @Override
+                    public void request(long n) {
+                        PublicationPublisher.this.request(n);
+                    }
+
+                    @Override
+                    public void cancel() {
+                        PublicationPublisher.this.cancel();
+                    }
+                });
+            }
+        }
+        if (accepted) {
+            // Publisher completed before subscriber came, terminal signal is delivered now.
+            if (done)
+                listenerExecutor.execute(drain);
+            return;
+        }
+        subscriber.onSubscribe(new org.reactivestreams.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onError(new IllegalStateException("publisher supports a single subscriber"));
+    }
+
+    // False when publication can not be taken without losing it, only possible with RESUBSCRIBE strategy.
+    boolean canAccept() {
+        if (overflowStrategy != OverflowStrategy.RESUBSCRIBE)
+            return true;
+        synchronized (buffer) {
+            return buffer.size() < bufferSize;
+        }
+    }
+
+    boolean isDrained() {
+        synchronized (buffer) {
+            return buffer.isEmpty();
+        }
+    }
+
+    void offer(SubscriptionEventListener.PublicationEvent event) {
+        if (cancelled || done || subscriber == null)
+            return;
+        synchronized (buffer) {
+            if (buffer.size() == bufferSize) {
+                if (overflowStrategy != OverflowStrategy.DROP_OLDEST)
+                    return;
+                buffer.pollFirst();
+            }
+            buffer.addLast(event);
+        }
+        listenerExecutor.execute(drain);
+    }
+
+    // Completes subscriber after buffered publications are delivered, with error if it is not null.
+    void complete(Throwable error) {
+        this.error = error;
+        done = true;
+        listenerExecutor.execute(drain);
+    }
+
+    private void request(long n) {
+        if (n <= 0) {
+            complete(new IllegalArgumentException("request must be positive, got " + n));
+            synchronized (buffer) {
+                buffer.clear();
+            }
+            return;
+        }
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!requested.compareAndSet(current, next));
+        listenerExecutor.execute(drain);
+    }
+
+    private void cancel() {
+        cancelled = true;
+        subscription.removePublisher(this);
+        synchronized (buffer) {
+            buffer.clear();
+        }
+    }
+
+    // Nothing to signal until subscribed, subscribe starts drain of a completed publisher.
+    private void drain() {
+        if (subscriber == null)
+            return;
+        if (wip.getAndIncrement() != 0)
+            return;
+        Subscriber<? super SubscriptionEventListener.PublicationEvent> subscriber = this.subscriber;
+        int missed = 1;
+        do {
+            long demand = requested.get();
+            long emitted = 0;
+            while (emitted != demand && !cancelled) {
+                SubscriptionEventListener.PublicationEvent event;
+                synchronized (buffer) {
+                    event = buffer.pollFirst();
+                }
+                if (event == null)
+                    break;
+                subscriber.onNext(event);
+                emitted++;
+            }
+            if (emitted != 0 && demand != Long.MAX_VALUE)
+                requested.addAndGet(-emitted);
+            if (cancelled)
+                return;
+            if (isDrained()) {
+                if (done) {
+                    cancelled = true;
+                    subscription.removePublisher(this);
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                if (overflowStrategy == OverflowStrategy.RESUBSCRIBE)
+                    subscription.onPublisherDrained();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -1,24 +1,56 @@
 package io.github.centrifugal.centrifuge.subscriptions;
 
+import org.reactivestreams.Publisher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
 import io.github.centrifugal.centrifuge.Client;
 import io.github.centrifugal.centrifuge.protobuf.Protocol;
 
 public class Subscription {
 
+    // Flow control state driven by RESUBSCRIBE publishers: publications are ignored while not ACTIVE.
+    private enum FlowState {
+        ACTIVE, SUSPENDED, RESUMING
+    }
+
     private final Client client;
     private final String channel;
     private final SubscriptionEventListener subscriptionEventListener;
+    private final Executor listenerExecutor;
     private SubscriptionState state;
     private boolean needResubscribe;
+    private boolean recoverable;
+    private int seq;
+    private int gen;
+    private String epoch;
+    private final List<PublicationPublisher> publishers = new CopyOnWriteArrayList<>();
+    private volatile FlowState flowState = FlowState.ACTIVE;
+    private volatile PresenceMirror presenceMirror;
 
     public Subscription(
             final Client client,
             final String channel,
             final SubscriptionEventListener subscriptionEventListener
+    ) {
+        this(client, channel, subscriptionEventListener, Runnable::run);
+    }
+
+    // Listener callbacks are submitted to listenerExecutor, subscription state is updated on the calling thread.
+    public Subscription(
+            final Client client,
+            final String channel,
+            final SubscriptionEventListener subscriptionEventListener,
+            final Executor listenerExecutor
     ) {
         this.client = client;
         this.channel = channel;
         this.subscriptionEventListener = subscriptionEventListener;
+        this.listenerExecutor = listenerExecutor;
         this.state = SubscriptionState.UNSUBSCRIBED;
         this.needResubscribe = true;
     }
@@ -43,25 +75,202 @@ public class Subscription {
         return needResubscribe;
     }
 
+    public boolean isRecoverable() {
+        return recoverable;
+    }
+
+    public int getSeq() {
+        return seq;
+    }
+
+    public int getGen() {
+        return gen;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public boolean isSuspended() {
+        return flowState != FlowState.ACTIVE;
+    }
+
+    // Publications as Reactive Streams publisher delivering only what subscriber requested, at most bufferSize
+    // publications wait for demand and overflowStrategy decides what happens to the next one. Every call returns
+    // a new publisher with its own buffer, publications are still delivered to SubscriptionEventListener too.
+    public Publisher<SubscriptionEventListener.PublicationEvent> publications(int bufferSize, OverflowStrategy overflowStrategy) {
+        PublicationPublisher publisher = new PublicationPublisher(this, listenerExecutor, bufferSize, overflowStrategy);
+        publishers.add(publisher);
+        return publisher;
+    }
+
+    // Opt-in local presence of channel, see PresenceMirror. Repeated calls return the same mirror.
+    public synchronized PresenceMirror enablePresenceMirror() {
+        if (presenceMirror == null) {
+            presenceMirror = new PresenceMirror();
+            if (state == SubscriptionState.SUBSCRIBED)
+                client.syncPresence(channel);
+        }
+        return presenceMirror;
+    }
+
+    public PresenceMirror getPresenceMirror() {
+        return presenceMirror;
+    }
+
+    void removePublisher(PublicationPublisher publisher) {
+        publishers.remove(publisher);
+    }
+
+    synchronized void onPublisherDrained() {
+        if (flowState != FlowState.SUSPENDED)
+            return;
+        for (PublicationPublisher publisher : publishers) {
+            if (!publisher.canAccept())
+                return;
+        }
+        flowState = FlowState.RESUMING;
+        client.resumeSubscription(channel);
+    }
+
+    public void onPrivateSub(SubscriptionEventListener.PrivateSubEvent event, SubscriptionEventListener.PrivateSubTokenCallback callback) {
+        listenerExecutor.execute(() -> subscriptionEventListener.onPrivateSub(client, event, callback));
+    }
+
     public void onSubscribeSuccess(Protocol.SubscribeResult subscribeResult) {
-        state = SubscriptionState.SUBSCRIBED;
-        SubscriptionEventListener.SubscribeSuccessEvent subscribeSuccessEvent =
-                SubscriptionEventListener.SubscribeSuccessEvent.fromProto(client.getConnectionId(), channel, subscribeResult);
-        subscriptionEventListener.onSubscribeSuccess(this, subscribeSuccessEvent);
+        synchronized (this) {
+            state = SubscriptionState.SUBSCRIBED;
+            if (presenceMirror != null)
+                client.syncPresence(channel);
+        }
+        flowState = FlowState.ACTIVE;
+        if (subscribeResult.getRecoverable()) {
+            recoverable = true;
+            epoch = subscribeResult.getEpoch();
+        }
+        String connectionId = client.getConnectionId();
+        listenerExecutor.execute(() -> {
+            SubscriptionEventListener.SubscribeSuccessEvent subscribeSuccessEvent =
+                    SubscriptionEventListener.SubscribeSuccessEvent.fromProto(connectionId, channel, subscribeResult);
+            subscriptionEventListener.onSubscribeSuccess(this, subscribeSuccessEvent);
+        });
+
+        if (subscribeResult.getPublicationsCount() > 0) {
+            // Missed publications are delivered oldest first, before any publication that arrives after subscribe reply.
+            List<Protocol.Publication> publications = new ArrayList<>(subscribeResult.getPublicationsList());
+            Collections.sort(publications, (p1, p2) -> p1.getGen() != p2.getGen()
+                    ? Long.compare(p1.getGen() & 0xffffffffL, p2.getGen() & 0xffffffffL)
+                    : Long.compare(p1.getSeq() & 0xffffffffL, p2.getSeq() & 0xffffffffL));
+            for (Protocol.Publication publication : publications)
+                onPublication(publication);
+        } else {
+            seq = subscribeResult.getSeq();
+            gen = subscribeResult.getGen();
+        }
+    }
+
+    public void onPublication(Protocol.Publication publication) {
+        if (flowState != FlowState.ACTIVE)
+            return;
+        if (!publishers.isEmpty()) {
+            onPublicationToPublishers(publication);
+            return;
+        }
+        seq = publication.getSeq();
+        gen = publication.getGen();
+        String connectionId = client.getConnectionId();
+        listenerExecutor.execute(() -> {
+            SubscriptionEventListener.PublicationEvent publicationEvent =
+                    SubscriptionEventListener.PublicationEvent.fromProto(connectionId, channel, publication);
+            subscriptionEventListener.onPublication(this, publicationEvent);
+        });
+    }
+
+    // Publication that does not fit into a RESUBSCRIBE publisher suspends subscription before stream position moves,
+    // so it is recovered with the rest of missed publications on resubscribe.
+    private void onPublicationToPublishers(Protocol.Publication publication) {
+        for (PublicationPublisher publisher : publishers) {
+            if (!publisher.canAccept()) {
+                synchronized (this) {
+                    flowState = FlowState.SUSPENDED;
+                }
+                client.suspendSubscription(channel);
+                return;
+            }
+        }
+        seq = publication.getSeq();
+        gen = publication.getGen();
+        SubscriptionEventListener.PublicationEvent publicationEvent =
+                SubscriptionEventListener.PublicationEvent.fromProto(client.getConnectionId(), channel, publication);
+        listenerExecutor.execute(() -> subscriptionEventListener.onPublication(this, publicationEvent));
+        for (PublicationPublisher publisher : publishers)
+            publisher.offer(publicationEvent);
+    }
+
+    public void onJoin(Protocol.Join join) {
+        PresenceMirror presenceMirror = this.presenceMirror;
+        if (presenceMirror != null)
+            presenceMirror.onJoin(join.getInfo());
+        String connectionId = client.getConnectionId();
+        listenerExecutor.execute(() -> {
+            SubscriptionEventListener.JoinEvent joinEvent =
+                    SubscriptionEventListener.JoinEvent.fromProto(connectionId, channel, join);
+            subscriptionEventListener.onJoin(this, joinEvent);
+        });
+    }
+
+    public void onLeave(Protocol.Leave leave) {
+        PresenceMirror presenceMirror = this.presenceMirror;
+        if (presenceMirror != null)
+            presenceMirror.onLeave(leave.getInfo());
+        String connectionId = client.getConnectionId();
+        listenerExecutor.execute(() -> {
+            SubscriptionEventListener.LeaveEvent leaveEvent =
+                    SubscriptionEventListener.LeaveEvent.fromProto(connectionId, channel, leave);
+            subscriptionEventListener.onLeave(this, leaveEvent);
+        });
+    }
+
+    public void onUnsub(Protocol.Unsub unsub) {
+        String connectionId = client.getConnectionId();
+        listenerExecutor.execute(() -> {
+            SubscriptionEventListener.UnsubscribeEvent unsubscribeEvent =
+                    SubscriptionEventListener.UnsubscribeEvent.fromProto(connectionId, channel, unsub);
+            subscriptionEventListener.onUnsubscribe(this, unsubscribeEvent);
+        });
+    }
+
+    public void onPresence(Protocol.PresenceResult presenceResult) {
+        PresenceMirror presenceMirror = this.presenceMirror;
+        if (presenceMirror != null)
+            presenceMirror.sync(presenceResult);
     }
 
     public void onSubscribeError(int code, String message) {
         state = SubscriptionState.SUBSCRIBE_ERROR;
         SubscriptionEventListener.SubscribeErrorEvent event = new SubscriptionEventListener.SubscribeErrorEvent(client.getConnectionId(), channel, code, message);
-        subscriptionEventListener.onSubscribeError(this, event);
+        listenerExecutor.execute(() -> subscriptionEventListener.onSubscribeError(this, event));
     }
 
     public void onUnsubscribed() {
         if (state == SubscriptionState.SUBSCRIBED) {
             SubscriptionEventListener.UnsubscribeEvent unsubscribeEvent =
                     new SubscriptionEventListener.UnsubscribeEvent(client.getConnectionId(), channel, needResubscribe);
-            subscriptionEventListener.onUnsubscribe(this, unsubscribeEvent);
+            listenerExecutor.execute(() -> subscriptionEventListener.onUnsubscribe(this, unsubscribeEvent));
         }
-        state = SubscriptionState.UNSUBSCRIBED;
+        synchronized (this) {
+            state = SubscriptionState.UNSUBSCRIBED;
+        }
+        PresenceMirror presenceMirror = this.presenceMirror;
+        if (presenceMirror != null)
+            presenceMirror.reset();
+    }
+
+    // Subscription is removed from client: publishers complete after delivering buffered publications,
+    // with error if it is not null.
+    public void onRemoved(Throwable error) {
+        for (PublicationPublisher publisher : publishers)
+            publisher.complete(error);
+        publishers.clear();
     }
 }
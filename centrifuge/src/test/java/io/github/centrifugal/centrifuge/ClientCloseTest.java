@@ -0,0 +1,70 @@
+package io.github.centrifugal.centrifuge;
+
+import io.github.centrifugal.centrifuge.fakeserver.FakeCentrifugo;
+import io.github.centrifugal.centrifuge.rpc.RPCRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClientCloseTest {
+
+    private FakeCentrifugo server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCentrifugo();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void closeStopsOwnExecutors() throws Exception {
+        Client client = FakeServerClients.connect(server.getUrl(), FakeServerClients.options());
+
+        client.close();
+
+        assertTrue(awaitRejected(client));
+    }
+
+    @Test
+    public void closeLeavesEventLoopGroupRunning() throws Exception {
+        ClientEventLoopGroup eventLoopGroup = new ClientEventLoopGroup(1);
+        try {
+            ClientOptions clientOptions = FakeServerClients.options();
+            clientOptions.setEventLoopGroup(eventLoopGroup);
+            Client closed = FakeServerClients.connect(server.getUrl(), clientOptions);
+            Client client = FakeServerClients.connect(server.getUrl(), clientOptions);
+
+            closed.close();
+
+            byte[] data = client.rpc(new RPCRequest(new byte[]{1})).get(FakeServerClients.AWAIT_SECONDS, TimeUnit.SECONDS).getData();
+            assertArrayEquals(new byte[]{1}, data);
+            client.disconnect();
+        } finally {
+            eventLoopGroup.shutdown();
+        }
+    }
+
+    private static boolean awaitRejected(Client client) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(FakeServerClients.AWAIT_SECONDS);
+        while (System.nanoTime() - deadline < 0) {
+            try {
+                client.disconnect();
+            } catch (RejectedExecutionException e) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
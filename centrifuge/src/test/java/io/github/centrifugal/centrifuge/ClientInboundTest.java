@@ -0,0 +1,56 @@
+package io.github.centrifugal.centrifuge;
+
+import io.github.centrifugal.centrifuge.fakeserver.FakeCentrifugo;
+import io.github.centrifugal.centrifuge.rpc.RPCRequest;
+import io.github.centrifugal.centrifuge.subscriptions.Subscription;
+import io.github.centrifugal.centrifuge.subscriptions.SubscriptionEventListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ClientInboundTest {
+
+    private FakeCentrifugo server;
+    private Client client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCentrifugo();
+        client = FakeServerClients.connect(server.getUrl(), FakeServerClients.options());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.disconnect();
+        server.close();
+    }
+
+    @Test
+    public void listenerErrorDropsOnlyItsFrame() throws Exception {
+        BlockingQueue<Byte> received = new LinkedBlockingQueue<>();
+        FakeServerClients.subscribe(client, "ch", new SubscriptionEventListener() {
+            @Override
+            public void onPublication(Subscription subscription, PublicationEvent event) {
+                received.add(event.getData()[0]);
+                if (event.getData()[0] == 1)
+                    throw new IllegalStateException("listener failure");
+            }
+        });
+
+        server.publish("ch", new byte[]{1});
+        server.publish("ch", new byte[]{2});
+
+        assertEquals(Byte.valueOf((byte) 1), received.poll(FakeServerClients.AWAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Byte.valueOf((byte) 2), received.poll(FakeServerClients.AWAIT_SECONDS, TimeUnit.SECONDS));
+        byte[] data = client.rpc(new RPCRequest(new byte[]{3})).get(FakeServerClients.AWAIT_SECONDS, TimeUnit.SECONDS).getData();
+        assertArrayEquals(new byte[]{3}, data);
+    }
+}
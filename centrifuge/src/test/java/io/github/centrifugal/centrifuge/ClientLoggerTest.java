@@ -0,0 +1,24 @@
+package io.github.centrifugal.centrifuge;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClientLoggerTest {
+
+    @Test
+    public void formatsPlaceholders() {
+        assertEquals("a 1 b 2 c", ClientLogger.format("a {} b {} c", 1, 2));
+        assertEquals("a 1", ClientLogger.format("a {}", 1, null));
+        assertEquals("plain", ClientLogger.format("plain", 1, 2));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedConstructorLogsOnlyWhenEnabled() {
+        assertTrue(new ClientLogger(true).isEnabled(ClientLogger.Level.DEBUG));
+        assertFalse(new ClientLogger(false).isEnabled(ClientLogger.Level.ERROR));
+    }
+}
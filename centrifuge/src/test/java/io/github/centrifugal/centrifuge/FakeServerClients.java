@@ -0,0 +1,64 @@
+package io.github.centrifugal.centrifuge;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.github.centrifugal.centrifuge.subscriptions.Subscription;
+import io.github.centrifugal.centrifuge.subscriptions.SubscriptionEventListener;
+
+import static org.junit.Assert.assertTrue;
+
+// Connects clients to FakeCentrifugo for tests, blocking until server confirms.
+public final class FakeServerClients {
+
+    public static final long AWAIT_SECONDS = 5;
+
+    private FakeServerClients() {
+    }
+
+    public static ClientOptions options() {
+        ClientOptions clientOptions = new ClientOptions();
+        clientOptions.setPingInterval((int) TimeUnit.HOURS.toMillis(1));
+        return clientOptions;
+    }
+
+    public static Client connect(String url, ClientOptions clientOptions) throws InterruptedException {
+        CountDownLatch connected = new CountDownLatch(1);
+        Client client = new Client(clientOptions, new ClientEventListener() {
+            @Override
+            public void onConnect(Client client, ConnectData data) {
+                connected.countDown();
+            }
+        }, url);
+        client.connect("");
+        await(connected);
+        return client;
+    }
+
+    // Subscribes with listener, onSubscribeSuccess of listener runs before this returns.
+    public static void subscribe(Client client, String channel, SubscriptionEventListener listener) throws InterruptedException {
+        CountDownLatch subscribed = new CountDownLatch(1);
+        client.subscribe(channel, new SubscriptionEventListener() {
+            @Override
+            public void onSubscribeSuccess(Subscription subscription, SubscribeSuccessEvent event) {
+                listener.onSubscribeSuccess(subscription, event);
+                subscribed.countDown();
+            }
+
+            @Override
+            public void onPublication(Subscription subscription, PublicationEvent event) {
+                listener.onPublication(subscription, event);
+            }
+
+            @Override
+            public void onUnsubscribe(Subscription subscription, UnsubscribeEvent event) {
+                listener.onUnsubscribe(subscription, event);
+            }
+        });
+        await(subscribed);
+    }
+
+    public static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue(latch.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.centrifugal.centrifuge;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PendingCommandsTest {
+
+    @Test
+    public void growsOnSlotCollision() {
+        PendingCommands pendingCommands = new PendingCommands(4);
+        ReplyCallback first = new NoopCallback();
+        ReplyCallback second = new NoopCallback();
+        ReplyCallback third = new NoopCallback();
+
+        // 1, 5 and 9 share a slot with 4 and 8 slots, grow has to rehash until they don't collide.
+        pendingCommands.put(1, first);
+        pendingCommands.put(5, second);
+        pendingCommands.put(9, third);
+
+        assertEquals(3, pendingCommands.size());
+        assertSame(second, pendingCommands.remove(5));
+        assertSame(first, pendingCommands.remove(1));
+        assertSame(third, pendingCommands.remove(9));
+        assertEquals(0, pendingCommands.size());
+    }
+
+    @Test
+    public void skipsStaleIdAfterSlotReuse() {
+        PendingCommands pendingCommands = new PendingCommands(4);
+        ReplyCallback callback = new NoopCallback();
+
+        pendingCommands.put(1, new NoopCallback());
+        pendingCommands.remove(1);
+        pendingCommands.put(5, callback);
+
+        assertNull(pendingCommands.remove(1));
+        assertEquals(1, pendingCommands.size());
+        assertSame(callback, pendingCommands.remove(5));
+        assertNull(pendingCommands.remove(5));
+        assertEquals(0, pendingCommands.size());
+    }
+
+    @Test
+    public void removeAllReturnsEveryCallback() {
+        PendingCommands pendingCommands = new PendingCommands(2);
+        for (int id = 1; id <= 10; id++)
+            pendingCommands.put(id, new NoopCallback());
+
+        List<ReplyCallback> removed = pendingCommands.removeAll();
+
+        assertEquals(10, removed.size());
+        assertEquals(0, pendingCommands.size());
+        assertNull(pendingCommands.remove(3));
+    }
+
+    private static class NoopCallback implements ReplyCallback {
+
+        @Override
+        public void onReply(Protocol.Reply reply) {
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+        }
+    }
+}
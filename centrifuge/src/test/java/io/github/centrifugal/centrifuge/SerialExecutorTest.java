@@ -0,0 +1,35 @@
+package io.github.centrifugal.centrifuge;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SerialExecutorTest {
+
+    @Test
+    public void runsTasksAfterFailedOne() {
+        List<Integer> ran = new ArrayList<>();
+        List<Throwable> uncaught = new ArrayList<>();
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        thread.setUncaughtExceptionHandler((t, e) -> uncaught.add(e));
+        try {
+            SerialExecutor executor = new SerialExecutor(Runnable::run);
+            executor.execute(() -> ran.add(1));
+            executor.execute(() -> {
+                throw new AssertionError("task failure");
+            });
+            executor.execute(() -> ran.add(2));
+            executor.execute(() -> ran.add(3));
+        } finally {
+            thread.setUncaughtExceptionHandler(handler);
+        }
+
+        assertEquals(Arrays.asList(1, 2, 3), ran);
+        assertEquals(1, uncaught.size());
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.centrifugal.centrifuge;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int WHEEL_SIZE = 8;
+    private static final long START = 1000;
+
+    private final List<Integer> expired = new ArrayList<>();
+    private final TimingWheel.ExpirationHandler handler = expired::add;
+
+    @Test
+    public void expiresOnDeadlineTick() {
+        TimingWheel wheel = newWheel();
+        wheel.add(1, START + 3 * TICK);
+
+        wheel.advance(START + 2 * TICK, handler);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(START + 3 * TICK, handler);
+        assertEquals(Collections.singletonList(1), expired);
+    }
+
+    @Test
+    public void expiresEverythingAfterStallLongerThanRevolution() {
+        TimingWheel wheel = newWheel();
+        for (int id = 0; id < WHEEL_SIZE; id++)
+            wheel.add(id, START + (id + 1) * TICK);
+
+        wheel.advance(START + 3 * WHEEL_SIZE * TICK, handler);
+
+        Collections.sort(expired);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7), expired);
+
+        wheel.advance(START + 4 * WHEEL_SIZE * TICK, handler);
+        assertEquals(WHEEL_SIZE, expired.size());
+    }
+
+    @Test
+    public void keepsDeadlineBeyondRevolutionUntilDue() {
+        TimingWheel wheel = newWheel();
+        long deadline = START + (2 * WHEEL_SIZE + 3) * TICK;
+        wheel.add(1, deadline);
+
+        for (long now = START; now < deadline; now += TICK) {
+            wheel.advance(now, handler);
+            assertTrue(expired.isEmpty());
+        }
+
+        wheel.advance(deadline, handler);
+        assertEquals(Collections.singletonList(1), expired);
+    }
+
+    @Test
+    public void clearDropsEntries() {
+        TimingWheel wheel = newWheel();
+        wheel.add(1, START + TICK);
+        wheel.clear();
+
+        wheel.advance(START + 2 * WHEEL_SIZE * TICK, handler);
+        assertTrue(expired.isEmpty());
+    }
+
+    private TimingWheel newWheel() {
+        return new TimingWheel(TICK, TimeUnit.NANOSECONDS, WHEEL_SIZE, START);
+    }
+}
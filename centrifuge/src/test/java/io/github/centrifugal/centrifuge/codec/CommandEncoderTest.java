@@ -0,0 +1,38 @@
+package io.github.centrifugal.centrifuge.codec;
+
+import com.google.protobuf.ByteString;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CommandEncoderTest {
+
+    private static final byte[] DATA = {1, 2, 3, 4};
+
+    @Test
+    public void appendsArrayPayload() throws Exception {
+        ByteString fields = Protocol.PublishRequest.newBuilder().setChannel("ch").build().toByteString();
+        ByteString encoded = CommandEncoder.appendPayload(fields, Protocol.PublishRequest.DATA_FIELD_NUMBER, DATA, null);
+
+        Protocol.PublishRequest request = Protocol.PublishRequest.parseFrom(encoded);
+        assertEquals("ch", request.getChannel());
+        assertArrayEquals(DATA, request.getData().toByteArray());
+    }
+
+    @Test
+    public void appendsRemainingBufferPayload() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{9, 1, 2, 3, 4});
+        buffer.get();
+        ByteString encoded = CommandEncoder.appendPayload(ByteString.EMPTY, Protocol.RPCRequest.DATA_FIELD_NUMBER, null, buffer);
+
+        assertArrayEquals(DATA, Protocol.RPCRequest.parseFrom(encoded).getData().toByteArray());
+        assertArrayEquals(DATA, CommandEncoder.payloadBytes(null, buffer));
+        assertEquals(4, buffer.remaining());
+    }
+}
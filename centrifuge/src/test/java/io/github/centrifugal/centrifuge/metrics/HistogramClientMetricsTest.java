@@ -0,0 +1,55 @@
+package io.github.centrifugal.centrifuge.metrics;
+
+import io.github.centrifugal.centrifuge.Client;
+import io.github.centrifugal.centrifuge.ClientOptions;
+import io.github.centrifugal.centrifuge.FakeServerClients;
+import io.github.centrifugal.centrifuge.fakeserver.FakeCentrifugo;
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+import io.github.centrifugal.centrifuge.rpc.RPCCallback;
+import io.github.centrifugal.centrifuge.rpc.RPCRequest;
+
+import java8.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramClientMetricsTest {
+
+    private final HistogramClientMetrics metrics = new HistogramClientMetrics();
+    private FakeCentrifugo server;
+    private Client client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCentrifugo();
+        ClientOptions clientOptions = FakeServerClients.options();
+        clientOptions.setMetrics(metrics);
+        client = FakeServerClients.connect(server.getUrl(), clientOptions);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.disconnect();
+        server.close();
+    }
+
+    @Test
+    public void pendingCommandsDropToZeroAfterReplies() throws Exception {
+        server.setLatency(50, TimeUnit.MILLISECONDS);
+        List<CompletableFuture<RPCCallback.RPCResult>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            results.add(client.rpc(new RPCRequest(new byte[]{1})));
+        for (CompletableFuture<RPCCallback.RPCResult> result : results)
+            result.get(FakeServerClients.AWAIT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(10, metrics.getCommandsSent(Protocol.MethodType.RPC));
+        assertEquals(0, metrics.getPendingCommands());
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.centrifugal.centrifuge.subscriptions;
+
+import io.github.centrifugal.centrifuge.Client;
+import io.github.centrifugal.centrifuge.FakeServerClients;
+import io.github.centrifugal.centrifuge.fakeserver.FakeCentrifugo;
+import io.github.centrifugal.centrifuge.rpc.RPCRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PublicationPublisherTest {
+
+    private static final String CHANNEL = "ch";
+
+    private FakeCentrifugo server;
+    private Client client;
+    private Subscription subscription;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCentrifugo();
+        client = FakeServerClients.connect(server.getUrl(), FakeServerClients.options());
+        subscription = subscribe();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.disconnect();
+        server.close();
+    }
+
+    @Test
+    public void deliversOnlyRequested() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscription.publications(4, OverflowStrategy.DROP_OLDEST).subscribe(subscriber);
+        subscriber.request(2);
+
+        publish(1, 2, 3);
+
+        assertEquals(1, subscriber.next());
+        assertEquals(2, subscriber.next());
+        assertNull(subscriber.received.poll(100, TimeUnit.MILLISECONDS));
+        subscriber.request(1);
+        assertEquals(3, subscriber.next());
+    }
+
+    @Test
+    public void dropOldestKeepsNewestPublications() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscription.publications(2, OverflowStrategy.DROP_OLDEST).subscribe(subscriber);
+
+        publish(1, 2, 3, 4);
+        subscriber.request(Long.MAX_VALUE);
+
+        assertEquals(3, subscriber.next());
+        assertEquals(4, subscriber.next());
+    }
+
+    @Test
+    public void resubscribeSuspendsUntilDrainedAndRecoversMissed() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscription.publications(2, OverflowStrategy.RESUBSCRIBE).subscribe(subscriber);
+
+        publish(1, 2, 3, 4, 5);
+        assertTrue(subscription.isSuspended());
+        subscriber.request(Long.MAX_VALUE);
+
+        for (int i = 1; i <= 5; i++)
+            assertEquals(i, subscriber.next());
+        publish(6);
+        assertEquals(6, subscriber.next());
+        assertFalse(subscription.isSuspended());
+    }
+
+    @Test
+    public void completesSubscriberArrivingAfterRemoval() throws Exception {
+        Publisher<SubscriptionEventListener.PublicationEvent> publisher =
+                subscription.publications(4, OverflowStrategy.DROP_OLDEST);
+
+        // Subscribing channel again removes previous subscription and completes its publishers.
+        subscribe();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        FakeServerClients.await(subscriber.completed);
+    }
+
+    private Subscription subscribe() throws InterruptedException {
+        AtomicReference<Subscription> subscribed = new AtomicReference<>();
+        FakeServerClients.subscribe(client, CHANNEL, new SubscriptionEventListener() {
+            @Override
+            public void onSubscribeSuccess(Subscription subscription, SubscribeSuccessEvent event) {
+                subscribed.set(subscription);
+            }
+        });
+        return subscribed.get();
+    }
+
+    // Publications are processed by client before a later RPC reply, so they reached publishers when this returns.
+    private void publish(int... values) throws Exception {
+        for (int value : values)
+            server.publish(CHANNEL, new byte[]{(byte) value});
+        client.rpc(new RPCRequest(new byte[0])).get(FakeServerClients.AWAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static class RecordingSubscriber implements Subscriber<SubscriptionEventListener.PublicationEvent> {
+
+        private final BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile org.reactivestreams.Subscription subscription;
+
+        @Override
+        public void onSubscribe(org.reactivestreams.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(SubscriptionEventListener.PublicationEvent event) {
+            received.add((int) event.getData()[0]);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        int next() throws InterruptedException {
+            Integer value = received.poll(FakeServerClients.AWAIT_SECONDS, TimeUnit.SECONDS);
+            assertTrue(value != null);
+            return value;
+        }
+    }
+}
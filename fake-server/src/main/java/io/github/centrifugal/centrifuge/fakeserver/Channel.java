@@ -0,0 +1,115 @@
+package io.github.centrifugal.centrifuge.fakeserver;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+
+// Channel state as Centrifugo keeps it with history enabled: subscribers, seq/gen/epoch position and last publications.
+// All methods are synchronized so a subscriber never sees publications out of order or before its subscribe reply.
+final class Channel {
+
+    private final FakeCentrifugo server;
+    private final String name;
+    private final String epoch = UUID.randomUUID().toString();
+    private final Set<Connection> subscribers = new LinkedHashSet<>();
+    private final ArrayDeque<Protocol.Publication> history = new ArrayDeque<>();
+    private int seq;
+
+    Channel(FakeCentrifugo server, String name) {
+        this.server = server;
+        this.name = name;
+    }
+
+    // Subscribe reply is written under channel lock when replyId is set, subscriptions made from connect
+    // command are answered by connect reply instead.
+    synchronized Protocol.SubscribeResult subscribe(Connection connection, Protocol.SubscribeRequest request, int replyId) {
+        Protocol.SubscribeResult.Builder result = Protocol.SubscribeResult.newBuilder()
+                .setRecoverable(true)
+                .setSeq(seq)
+                .setGen(0)
+                .setEpoch(epoch);
+        int ttl = server.getSubscriptionTtl();
+        if (ttl > 0 && !request.getToken().isEmpty())
+            result.setExpires(true).setTtl(ttl);
+        if (request.getRecover()) {
+            boolean recovered = request.getEpoch().equals(epoch) && request.getGen() == 0;
+            if (recovered) {
+                Protocol.Publication oldest = history.peekFirst();
+                recovered = oldest == null ? request.getSeq() == seq : oldest.getSeq() <= request.getSeq() + 1;
+            }
+            for (Protocol.Publication publication : history) {
+                if (!recovered || publication.getSeq() > request.getSeq())
+                    result.addPublications(publication);
+            }
+            result.setRecovered(recovered);
+        }
+        Protocol.SubscribeResult subscribeResult = result.build();
+        if (replyId != 0)
+            connection.sendReply(replyId, subscribeResult.toByteString());
+        if (subscribers.add(connection) && server.isJoinLeaveEnabled())
+            broadcast(Protocol.PushType.JOIN, Protocol.Join.newBuilder().setInfo(connection.getInfo()).build(), connection);
+        return subscribeResult;
+    }
+
+    synchronized void unsubscribe(Connection connection) {
+        if (subscribers.remove(connection) && server.isJoinLeaveEnabled())
+            broadcast(Protocol.PushType.LEAVE, Protocol.Leave.newBuilder().setInfo(connection.getInfo()).build(), connection);
+    }
+
+    synchronized void publish(ByteString data, Protocol.ClientInfo info) {
+        Protocol.Publication publication = Protocol.Publication.newBuilder()
+                .setSeq(++seq)
+                .setGen(0)
+                .setData(data)
+                .setInfo(info)
+                .build();
+        history.addLast(publication);
+        while (history.size() > server.getHistorySize())
+            history.removeFirst();
+        broadcast(Protocol.PushType.PUBLICATION, publication, null);
+    }
+
+    synchronized Protocol.PresenceResult presence() {
+        Protocol.PresenceResult.Builder result = Protocol.PresenceResult.newBuilder();
+        for (Connection subscriber : subscribers)
+            result.putPresence(subscriber.getClientId(), subscriber.getInfo());
+        return result.build();
+    }
+
+    synchronized Protocol.PresenceStatsResult presenceStats() {
+        Set<String> users = new HashSet<>();
+        for (Connection subscriber : subscribers)
+            users.add(subscriber.getInfo().getUser());
+        return Protocol.PresenceStatsResult.newBuilder()
+                .setNumClients(subscribers.size())
+                .setNumUsers(users.size())
+                .build();
+    }
+
+    synchronized Protocol.HistoryResult history() {
+        return Protocol.HistoryResult.newBuilder().addAllPublications(history).build();
+    }
+
+    // Push frame is encoded once and shared between all subscribers.
+    private void broadcast(Protocol.PushType type, MessageLite data, Connection except) {
+        if (subscribers.isEmpty())
+            return;
+        Protocol.Push push = Protocol.Push.newBuilder()
+                .setType(type)
+                .setChannel(name)
+                .setData(data.toByteString())
+                .build();
+        okio.ByteString frame = Connection.frame(Protocol.Reply.newBuilder().setResult(push.toByteString()).build());
+        for (Connection subscriber : subscribers) {
+            if (subscriber != except)
+                subscriber.sendPush(frame);
+        }
+    }
+}
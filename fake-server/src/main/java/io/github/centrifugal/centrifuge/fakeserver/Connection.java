@@ -0,0 +1,210 @@
+package io.github.centrifugal.centrifuge.fakeserver;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.Buffer;
+
+// Server side of a single client connection, all commands of a frame are answered with one reply frame.
+final class Connection extends WebSocketListener {
+
+    private final FakeCentrifugo server;
+    private final String clientId;
+    private final Protocol.ClientInfo info;
+    private final Set<String> channels = new HashSet<>();
+    private final Buffer replies = new Buffer();
+    private volatile WebSocket webSocket;
+
+    Connection(FakeCentrifugo server, String clientId) {
+        this.server = server;
+        this.clientId = clientId;
+        this.info = Protocol.ClientInfo.newBuilder()
+                .setClient(clientId)
+                .build();
+    }
+
+    String getClientId() {
+        return clientId;
+    }
+
+    Protocol.ClientInfo getInfo() {
+        return info;
+    }
+
+    void close(int code, String reason) {
+        WebSocket webSocket = this.webSocket;
+        if (webSocket != null)
+            webSocket.close(code, reason);
+    }
+
+    void sendPush(okio.ByteString frame) {
+        server.sendPush(webSocket, frame);
+    }
+
+    // Writes reply together with replies buffered so far, used where reply must reach client before any push.
+    void sendReply(int id, ByteString result) {
+        writeReply(id, result);
+        flushReplies();
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket, Response response) {
+        this.webSocket = webSocket;
+        server.onOpen(this);
+    }
+
+    // Completes close handshake started by client, otherwise client waits for it until its socket times out.
+    @Override
+    public void onClosing(WebSocket webSocket, int code, String reason) {
+        webSocket.close(code, reason);
+    }
+
+    @Override
+    public void onClosed(WebSocket webSocket, int code, String reason) {
+        onDisconnect();
+    }
+
+    @Override
+    public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+        onDisconnect();
+    }
+
+    @Override
+    public void onMessage(WebSocket webSocket, okio.ByteString bytes) {
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(bytes.toByteArray());
+            while (!input.isAtEnd()) {
+                Protocol.Command command = input.readMessage(Protocol.Command.parser(), ExtensionRegistryLite.getEmptyRegistry());
+                server.onCommand();
+                handleCommand(command);
+            }
+        } catch (IOException e) {
+            webSocket.cancel();
+            return;
+        }
+        flushReplies();
+    }
+
+    private void handleCommand(Protocol.Command command) throws IOException {
+        switch (command.getMethod()) {
+            case CONNECT: {
+                Protocol.ConnectRequest request = Protocol.ConnectRequest.parseFrom(command.getParams());
+                Protocol.ConnectResult.Builder result = Protocol.ConnectResult.newBuilder()
+                        .setClient(clientId)
+                        .setVersion(FakeCentrifugo.VERSION);
+                for (Map.Entry<String, Protocol.SubscribeRequest> entry : request.getSubsMap().entrySet()) {
+                    channels.add(entry.getKey());
+                    result.putSubs(entry.getKey(), server.getChannel(entry.getKey()).subscribe(this, entry.getValue(), 0));
+                }
+                writeReply(command.getId(), result.build().toByteString());
+                break;
+            }
+            case SUBSCRIBE: {
+                Protocol.SubscribeRequest request = Protocol.SubscribeRequest.parseFrom(command.getParams());
+                channels.add(request.getChannel());
+                flushReplies();
+                server.getChannel(request.getChannel()).subscribe(this, request, command.getId());
+                break;
+            }
+            case UNSUBSCRIBE: {
+                Protocol.UnsubscribeRequest request = Protocol.UnsubscribeRequest.parseFrom(command.getParams());
+                if (channels.remove(request.getChannel()))
+                    server.getChannel(request.getChannel()).unsubscribe(this);
+                writeReply(command.getId(), ByteString.EMPTY);
+                break;
+            }
+            case PUBLISH: {
+                Protocol.PublishRequest request = Protocol.PublishRequest.parseFrom(command.getParams());
+                server.getChannel(request.getChannel()).publish(request.getData(), info);
+                writeReply(command.getId(), ByteString.EMPTY);
+                break;
+            }
+            case PRESENCE: {
+                Protocol.PresenceRequest request = Protocol.PresenceRequest.parseFrom(command.getParams());
+                writeReply(command.getId(), server.getChannel(request.getChannel()).presence().toByteString());
+                break;
+            }
+            case PRESENCE_STATS: {
+                Protocol.PresenceStatsRequest request = Protocol.PresenceStatsRequest.parseFrom(command.getParams());
+                writeReply(command.getId(), server.getChannel(request.getChannel()).presenceStats().toByteString());
+                break;
+            }
+            case HISTORY: {
+                Protocol.HistoryRequest request = Protocol.HistoryRequest.parseFrom(command.getParams());
+                writeReply(command.getId(), server.getChannel(request.getChannel()).history().toByteString());
+                break;
+            }
+            case RPC: {
+                Protocol.RPCRequest request = Protocol.RPCRequest.parseFrom(command.getParams());
+                writeReply(command.getId(), Protocol.RPCResult.newBuilder().setData(request.getData()).build().toByteString());
+                break;
+            }
+            case REFRESH:
+                writeReply(command.getId(), Protocol.RefreshResult.newBuilder()
+                        .setClient(clientId)
+                        .setVersion(FakeCentrifugo.VERSION)
+                        .build()
+                        .toByteString());
+                break;
+            case SUB_REFRESH: {
+                server.onSubRefresh();
+                int ttl = server.getSubscriptionTtl();
+                writeReply(command.getId(), Protocol.SubRefreshResult.newBuilder()
+                        .setExpires(ttl > 0)
+                        .setTtl(ttl)
+                        .build()
+                        .toByteString());
+                break;
+            }
+            case SEND:
+                break;
+            default:
+                writeReply(command.getId(), ByteString.EMPTY);
+        }
+    }
+
+    private void writeReply(int id, ByteString result) {
+        try {
+            Protocol.Reply.newBuilder()
+                    .setId(id)
+                    .setResult(result)
+                    .build()
+                    .writeDelimitedTo(replies.outputStream());
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void flushReplies() {
+        if (replies.size() > 0)
+            server.send(webSocket, replies.readByteString());
+    }
+
+    private void onDisconnect() {
+        for (String channel : channels)
+            server.getChannel(channel).unsubscribe(this);
+        channels.clear();
+        server.onClose(this);
+    }
+
+    static okio.ByteString frame(Protocol.Reply... replies) {
+        Buffer buffer = new Buffer();
+        try {
+            for (Protocol.Reply reply : replies)
+                reply.writeDelimitedTo(buffer.outputStream());
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return buffer.readByteString();
+    }
+}
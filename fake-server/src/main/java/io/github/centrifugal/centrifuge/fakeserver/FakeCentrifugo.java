@@ -0,0 +1,206 @@
+package io.github.centrifugal.centrifuge.fakeserver;
+
+import com.google.protobuf.ByteString;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.centrifugal.centrifuge.protobuf.Protocol;
+import okhttp3.WebSocket;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+// In-process Centrifugo stand-in speaking client.proto protocol over MockWebServer WebSocket upgrades.
+// Meant for tests and benchmarks of Client without network access: supports synthetic publication streams,
+// reply/push latency injection and server side disconnects.
+public final class FakeCentrifugo implements Closeable {
+
+    static final String VERSION = "fake";
+
+    private static final int DISCONNECT_CODE = 3000;
+    private static final int GOING_AWAY_CODE = 1001;
+    private static final int DEFAULT_HISTORY_SIZE = 100;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+    private static final long PUBLISHING_TICK_MICROS = 1000;
+
+    private final MockWebServer server = new MockWebServer();
+    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fake-centrifugo");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger clientIds = new AtomicInteger();
+    private final AtomicLong commandCount = new AtomicLong();
+    private final AtomicLong pushCount = new AtomicLong();
+    private final AtomicLong subRefreshCount = new AtomicLong();
+
+    private volatile long latencyNanos;
+    private volatile int historySize = DEFAULT_HISTORY_SIZE;
+    private volatile boolean joinLeaveEnabled;
+    private volatile int subscriptionTtl;
+
+    public FakeCentrifugo() throws IOException {
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                Connection connection = new Connection(FakeCentrifugo.this, "client-" + clientIds.incrementAndGet());
+                return new MockResponse().withWebSocketUpgrade(connection);
+            }
+        });
+        server.start();
+    }
+
+    public String getUrl() {
+        return server.url("/connection/websocket?format=protobuf").toString();
+    }
+
+    // Every reply and push is delayed by latency before it is written to socket.
+    public void setLatency(long latency, TimeUnit unit) {
+        this.latencyNanos = unit.toNanos(latency);
+    }
+
+    // Number of last publications kept per channel for history and recovery.
+    public void setHistorySize(int historySize) {
+        this.historySize = historySize;
+    }
+
+    public void setJoinLeaveEnabled(boolean joinLeaveEnabled) {
+        this.joinLeaveEnabled = joinLeaveEnabled;
+    }
+
+    // Subscriptions made with token expire after ttl seconds and can be prolonged with sub refresh, 0 disables expiry.
+    public void setSubscriptionTtl(int subscriptionTtl) {
+        this.subscriptionTtl = subscriptionTtl;
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public long getCommandCount() {
+        return commandCount.get();
+    }
+
+    public long getPushCount() {
+        return pushCount.get();
+    }
+
+    public long getSubRefreshCount() {
+        return subRefreshCount.get();
+    }
+
+    public void publish(String channel, byte[] data) {
+        getChannel(channel).publish(ByteString.copyFrom(data), Protocol.ClientInfo.getDefaultInstance());
+    }
+
+    // Publishes payloadSize bytes into channel at a steady rate until returned stream is stopped.
+    public PublicationStream startPublishing(String channel, int publicationsPerSecond, int payloadSize) {
+        Channel target = getChannel(channel);
+        ByteString data = ByteString.copyFrom(new byte[payloadSize]);
+        AtomicLong published = new AtomicLong();
+        long start = System.nanoTime();
+        ScheduledFuture<?> future = scheduledExecutorService.scheduleAtFixedRate(() -> {
+            long due = (System.nanoTime() - start) * publicationsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            while (published.get() < due) {
+                target.publish(data, Protocol.ClientInfo.getDefaultInstance());
+                published.incrementAndGet();
+            }
+        }, 0, PUBLISHING_TICK_MICROS, TimeUnit.MICROSECONDS);
+        return new PublicationStream(future, published);
+    }
+
+    // Closes every connection with Centrifugo disconnect reason, client reconnects if reconnect is true.
+    public void disconnectAll(String reason, boolean reconnect) {
+        String disconnectReasonJson = String.format("{\"reason\": \"%s\", \"reconnect\": %b}", reason, reconnect);
+        for (Connection connection : connections)
+            connection.close(DISCONNECT_CODE, disconnectReasonJson);
+    }
+
+    public ScheduledFuture<?> scheduleDisconnects(long period, TimeUnit unit, String reason, boolean reconnect) {
+        return scheduledExecutorService.scheduleAtFixedRate(() -> disconnectAll(reason, reconnect), period, period, unit);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduledExecutorService.shutdownNow();
+        for (Connection connection : connections)
+            connection.close(GOING_AWAY_CODE, "");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CLOSE_TIMEOUT_SECONDS);
+        while (!connections.isEmpty() && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        server.shutdown();
+    }
+
+    Channel getChannel(String name) {
+        Channel channel = channels.get(name);
+        if (channel == null) {
+            Channel created = new Channel(this, name);
+            channel = channels.putIfAbsent(name, created);
+            if (channel == null)
+                channel = created;
+        }
+        return channel;
+    }
+
+    int getHistorySize() {
+        return historySize;
+    }
+
+    boolean isJoinLeaveEnabled() {
+        return joinLeaveEnabled;
+    }
+
+    int getSubscriptionTtl() {
+        return subscriptionTtl;
+    }
+
+    void onSubRefresh() {
+        subRefreshCount.incrementAndGet();
+    }
+
+    void onOpen(Connection connection) {
+        connections.add(connection);
+    }
+
+    void onClose(Connection connection) {
+        connections.remove(connection);
+    }
+
+    void onCommand() {
+        commandCount.incrementAndGet();
+    }
+
+    void sendPush(WebSocket webSocket, okio.ByteString frame) {
+        pushCount.incrementAndGet();
+        send(webSocket, frame);
+    }
+
+    void send(WebSocket webSocket, okio.ByteString frame) {
+        long latency = latencyNanos;
+        if (latency == 0) {
+            webSocket.send(frame);
+        } else {
+            scheduledExecutorService.schedule(() -> webSocket.send(frame), latency, TimeUnit.NANOSECONDS);
+        }
+    }
+}
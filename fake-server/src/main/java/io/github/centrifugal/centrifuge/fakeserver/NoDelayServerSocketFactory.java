@@ -0,0 +1,54 @@
+package io.github.centrifugal.centrifuge.fakeserver;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import javax.net.ServerSocketFactory;
+
+// Accepted sockets get TCP_NODELAY as on Centrifugo, otherwise a reply written right after a push
+// waits for delayed ACK of the push.
+final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+        return new NoDelayServerSocket();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        ServerSocket serverSocket = new NoDelayServerSocket();
+        serverSocket.bind(new InetSocketAddress(port));
+        return serverSocket;
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+        ServerSocket serverSocket = new NoDelayServerSocket();
+        serverSocket.bind(new InetSocketAddress(port), backlog);
+        return serverSocket;
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+        ServerSocket serverSocket = new NoDelayServerSocket();
+        serverSocket.bind(new InetSocketAddress(address, port), backlog);
+        return serverSocket;
+    }
+
+    private static final class NoDelayServerSocket extends ServerSocket {
+
+        NoDelayServerSocket() throws IOException {
+        }
+
+        @Override
+        public Socket accept() throws IOException {
+            Socket socket = new Socket();
+            implAccept(socket);
+            socket.setTcpNoDelay(true);
+            return socket;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.centrifugal.centrifuge.fakeserver;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class PublicationStream {
+
+    private final ScheduledFuture<?> future;
+    private final AtomicLong published;
+
+    PublicationStream(ScheduledFuture<?> future, AtomicLong published) {
+        this.future = future;
+        this.published = published;
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public void stop() {
+        future.cancel(false);
+    }
+}